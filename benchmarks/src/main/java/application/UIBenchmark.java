@@ -0,0 +1,59 @@
+package application;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chess.ChessMatch;
+import chess.ChessPiece;
+
+//Impressão do tabuleiro, com System.out descartando a saída para medir só a montagem do texto
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UIBenchmark {
+
+    private ChessPiece[][] pieces;
+    private boolean[][] possibleMoves;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setup() {
+        ChessMatch match = new ChessMatch();
+        pieces = match.getPieces();
+        possibleMoves = pieces[6][4].possibleMoves();
+
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public void printBoard() {
+        UI.printBoard(pieces);
+    }
+
+    @Benchmark
+    public void printBoardWithMoves() {
+        UI.printBoard(pieces, possibleMoves);
+    }
+}
@@ -0,0 +1,23 @@
+package chess;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/*
+    Roda os benchmarks com o profiler de GC (bytes alocados por operação).
+    Uso: java -cp target/benchmarks.jar chess.BenchmarkRunner [regex dos benchmarks]
+*/
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include((args.length > 0) ? args[0] : ".*Benchmark")
+            .addProfiler(GCProfiler.class)
+            .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,101 @@
+package chess;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+    Caminhos quentes da partida. testCheck é privado, então é chamado por um
+    MethodHandle static final, que o JIT trata como constante e inlina.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChessMatchBenchmark {
+
+    private static final ChessPosition E2 = new ChessPosition('e', 2);
+    private static final ChessPosition E4 = new ChessPosition('e', 4);
+
+    private static final MethodHandle TEST_CHECK;
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(ChessMatch.class, MethodHandles.lookup());
+            TEST_CHECK = lookup.findVirtual(ChessMatch.class, "testCheck", MethodType.methodType(boolean.class, Color.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private ChessMatch kiwipete;
+    private ChessMatch foolsMate;
+    private int[] moves = new int[Move.MAX_MOVES];
+
+    //performChessMove altera a partida, então cada chamada começa de uma partida nova
+    @State(Scope.Thread)
+    public static class NewMatch {
+        ChessMatch match;
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            match = new ChessMatch();
+        }
+    }
+
+    @Setup
+    public void setup() {
+        kiwipete = new ChessMatch(Positions.KIWIPETE);
+        foolsMate = new ChessMatch(Positions.FOOLS_MATE);
+    }
+
+    @Benchmark
+    public ChessPiece performChessMove(NewMatch state) {
+        return state.match.performChessMove(E2, E4);
+    }
+
+    @Benchmark
+    public boolean testCheck() throws Throwable {
+        return (boolean) TEST_CHECK.invokeExact(kiwipete, Color.WHITE);
+    }
+
+    //Detecção de mate como em tryMove: gerar os lances legais de uma posição de mate (nenhum)
+    @Benchmark
+    public int checkMateDetection() {
+        return foolsMate.generateLegalMoves(moves);
+    }
+
+    @Benchmark
+    public ChessPiece[][] getPieces() {
+        return kiwipete.getPieces();
+    }
+
+    @Benchmark
+    public int generateLegalMoves() {
+        return kiwipete.generateLegalMoves(moves);
+    }
+
+    @Benchmark
+    public ChessMatch fromFen() {
+        return new ChessMatch(Positions.KIWIPETE);
+    }
+
+    @Benchmark
+    public String toFen() {
+        return kiwipete.toFen();
+    }
+}
@@ -0,0 +1,58 @@
+package chess;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//Geração de lances de uma peça branca de cada tipo na posição Kiwipete
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PieceMovesBenchmark {
+
+    @Param({"PAWN", "KNIGHT", "BISHOP", "ROOK", "QUEEN", "KING"})
+    public PieceType type;
+
+    private ChessPiece piece;
+    private int[] moves = new int[Move.MAX_MOVES];
+
+    @Setup
+    public void setup() {
+        ChessPiece[][] pieces = new ChessMatch(Positions.KIWIPETE).getPieces();
+        for (ChessPiece[] row : pieces) {
+            for (ChessPiece p : row) {
+                if (piece == null && p != null && p.getColor() == Color.WHITE && p.getType() == type) {
+                    piece = p;
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean[][] possibleMoves() {
+        return piece.possibleMoves();
+    }
+
+    @Benchmark
+    public long possibleMovesMask() {
+        return piece.possibleMovesMask();
+    }
+
+    @Benchmark
+    public int possibleMovesBuffer() {
+        return piece.possibleMoves(moves, 0);
+    }
+}
@@ -0,0 +1,11 @@
+package chess;
+
+//Posições usadas pelos benchmarks
+final class Positions {
+    static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    //Mate do louco (fool's mate: 1. f3 e5 2. g4 Qh4#): o branco está em checkmate
+    static final String FOOLS_MATE = "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3";
+
+    private Positions() {
+    }
+}
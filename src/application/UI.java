@@ -57,7 +57,10 @@ public class UI {
         System.out.println();
         System.out.println("Turn: " + chessMatch.getTurn());
 
-        if(!chessMatch.getCheckMate()) {
+        if(chessMatch.getDraw()) {
+            System.out.println("DRAW (" + chessMatch.getDrawReason() + ")");
+        }
+        else if(!chessMatch.getCheckMate()) {
 
             System.out.println("Waiting player: " + chessMatch.getCurrentPlayer());
     
@@ -13,27 +13,32 @@ public abstract class Piece {
 
     public abstract boolean[][] possibleMoves();
 
-    public boolean possibleMove(Position position) {
-        return possibleMoves()[position.getRow()][position.getColumn()];
-    }
-
-
     /*
-        Faz uma varredura em toda a matriz de posição
-        verificando se há alguma posição na matrix que 
-        retorna TRUE (indicando que há um movimento possível)
+        Movimentos possíveis como máscara de bits, um bit por casa
+        (casa = linha * colunas + coluna). Só vale para tabuleiros de até 64 casas.
+        A implementação padrão converte a matriz; subclasses devem gerar a máscara direto.
     */
-    public boolean isThereAnyPossibleMove() {
+    public long possibleMovesMask() {
         boolean[][] mat = possibleMoves();
+        long mask = 0L;
         for (int i = 0; i < mat.length; i++) {
-            for (int j = 0; j < mat.length; j++) {
+            for (int j = 0; j < mat[i].length; j++) {
                 if (mat[i][j]) {
-                    return true;
+                    mask |= 1L << (i * board.getColumns() + j);
                 }
             }
         }
 
-        return false;  
+        return mask;
+    }
+
+    public boolean possibleMove(Position position) {
+        return (possibleMovesMask() & (1L << (position.getRow() * board.getColumns() + position.getColumn()))) != 0;
+    }
+
+    //Há algum movimento possível se algum bit da máscara estiver ligado
+    public boolean isThereAnyPossibleMove() {
+        return possibleMovesMask() != 0;
     }
 
     protected Board getBoard() {
@@ -0,0 +1,215 @@
+package chess;
+
+/*
+    Tabelas de ataque pré-calculadas por casa (numeração do ChessBoard),
+    montadas uma única vez quando a classe é carregada.
+
+    Torre e bispo usam magic bitboards: a ocupação relevante da casa é
+    multiplicada por um número mágico e o resultado indexa a tabela de ataques.
+    Os números mágicos são procurados na carga da classe com semente fixa,
+    então as tabelas são sempre as mesmas.
+*/
+public final class Attacks {
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING = new long[64];
+    private static final long[][] PAWN = new long[2][64];
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    private static final long[] ROOK_MASK = new long[64];
+    private static final long[] ROOK_MAGIC = new long[64];
+    private static final int[] ROOK_SHIFT = new int[64];
+    private static final long[][] ROOK_TABLE = new long[64][];
+
+    private static final long[] BISHOP_MASK = new long[64];
+    private static final long[] BISHOP_MAGIC = new long[64];
+    private static final int[] BISHOP_SHIFT = new int[64];
+    private static final long[][] BISHOP_TABLE = new long[64][];
+
+    private static final int[][] ROOK_DIRECTIONS = {{-1, 0}, {0, -1}, {0, 1}, {1, 0}};
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {-1, 1}, {1, 1}, {1, -1}};
+
+    private static long seed = 0x9E3779B97F4A7C15L;
+
+    private static final int[][] KNIGHT_OFFSETS = {
+        {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}, {1, 2}, {2, 1}, {2, -1}, {1, -2}
+    };
+    private static final int[][] KING_OFFSETS = {
+        {-1, 0}, {1, 0}, {0, -1}, {0, 1}, {-1, -1}, {-1, 1}, {1, -1}, {1, 1}
+    };
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            KNIGHT[sq] = steps(sq, KNIGHT_OFFSETS);
+            KING[sq] = steps(sq, KING_OFFSETS);
+            PAWN[Color.WHITE.ordinal()][sq] = steps(sq, new int[][] {{-1, -1}, {-1, 1}});
+            PAWN[Color.BLACK.ordinal()][sq] = steps(sq, new int[][] {{1, -1}, {1, 1}});
+            initMagic(sq, ROOK_DIRECTIONS, ROOK_MASK, ROOK_MAGIC, ROOK_SHIFT, ROOK_TABLE);
+            initMagic(sq, BISHOP_DIRECTIONS, BISHOP_MASK, BISHOP_MAGIC, BISHOP_SHIFT, BISHOP_TABLE);
+        }
+
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                long bits = (1L << a) | (1L << b);
+                if (a != b && (rook(a, 0L) & (1L << b)) != 0) {
+                    BETWEEN[a][b] = rook(a, 1L << b) & rook(b, 1L << a);
+                    LINE[a][b] = (rook(a, 0L) & rook(b, 0L)) | bits;
+                } else if (a != b && (bishop(a, 0L) & (1L << b)) != 0) {
+                    BETWEEN[a][b] = bishop(a, 1L << b) & bishop(b, 1L << a);
+                    LINE[a][b] = (bishop(a, 0L) & bishop(b, 0L)) | bits;
+                }
+            }
+        }
+    }
+
+    private Attacks() {
+    }
+
+    public static long knight(int square) {
+        return KNIGHT[square];
+    }
+
+    public static long king(int square) {
+        return KING[square];
+    }
+
+    //Casas atacadas por um peão da cor na casa dada
+    public static long pawn(Color color, int square) {
+        return PAWN[color.ordinal()][square];
+    }
+
+    public static long rook(int square, long occupancy) {
+        return ROOK_TABLE[square][(int) (((occupancy & ROOK_MASK[square]) * ROOK_MAGIC[square]) >>> ROOK_SHIFT[square])];
+    }
+
+    public static long bishop(int square, long occupancy) {
+        return BISHOP_TABLE[square][(int) (((occupancy & BISHOP_MASK[square]) * BISHOP_MAGIC[square]) >>> BISHOP_SHIFT[square])];
+    }
+
+    //A dama é a união dos ataques de torre e bispo
+    public static long queen(int square, long occupancy) {
+        return rook(square, occupancy) | bishop(square, occupancy);
+    }
+
+    //Casas estritamente entre a e b, se estiverem na mesma linha, coluna ou diagonal
+    public static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    //Linha inteira (de borda a borda) que passa por a e b, ou zero se não estiverem alinhadas
+    public static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    private static long steps(int square, int[][] offsets) {
+        long mask = 0L;
+        for (int[] offset : offsets) {
+            int row = ChessBoard.row(square) + offset[0];
+            int column = ChessBoard.column(square) + offset[1];
+            if (row >= 0 && row < 8 && column >= 0 && column < 8) {
+                mask |= 1L << ChessBoard.square(row, column);
+            }
+        }
+
+        return mask;
+    }
+
+    //Procura o número mágico da casa e preenche a tabela de ataques indexada por ele
+    private static void initMagic(int square, int[][] directions, long[] masks, long[] magics, int[] shifts, long[][] tables) {
+        long mask = relevantOccupancy(square, directions);
+        int bits = Long.bitCount(mask);
+        int size = 1 << bits;
+
+        //Enumera todos os subconjuntos da máscara (Carry-Rippler)
+        long[] occupancies = new long[size];
+        long[] attacks = new long[size];
+        long subset = 0L;
+        for (int i = 0; i < size; i++) {
+            occupancies[i] = subset;
+            attacks[i] = slidingAttacks(square, subset, directions);
+            subset = (subset - mask) & mask;
+        }
+
+        long[] table = new long[size];
+        int[] epoch = new int[size];
+        int attempt = 0;
+        while (true) {
+            long magic = sparseRandom();
+            if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+                continue;
+            }
+
+            attempt++;
+            boolean ok = true;
+            for (int i = 0; i < size && ok; i++) {
+                int index = (int) ((occupancies[i] * magic) >>> (64 - bits));
+                if (epoch[index] != attempt) {
+                    epoch[index] = attempt;
+                    table[index] = attacks[i];
+                } else if (table[index] != attacks[i]) {
+                    ok = false;
+                }
+            }
+
+            if (ok) {
+                masks[square] = mask;
+                magics[square] = magic;
+                shifts[square] = 64 - bits;
+                tables[square] = table;
+                return;
+            }
+        }
+    }
+
+    //Casas que podem bloquear o raio, sem contar a borda final de cada direção
+    private static long relevantOccupancy(int square, int[][] directions) {
+        long mask = 0L;
+        for (int[] direction : directions) {
+            int row = ChessBoard.row(square) + direction[0];
+            int column = ChessBoard.column(square) + direction[1];
+            while (inside(row + direction[0], column + direction[1])) {
+                mask |= 1L << ChessBoard.square(row, column);
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+
+        return mask;
+    }
+
+    //Ataques calculados casa a casa, usados apenas para montar as tabelas
+    private static long slidingAttacks(int square, long occupancy, int[][] directions) {
+        long mask = 0L;
+        for (int[] direction : directions) {
+            int row = ChessBoard.row(square) + direction[0];
+            int column = ChessBoard.column(square) + direction[1];
+            while (inside(row, column)) {
+                long bit = 1L << ChessBoard.square(row, column);
+                mask |= bit;
+                if ((occupancy & bit) != 0) {
+                    break;
+                }
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+
+        return mask;
+    }
+
+    private static boolean inside(int row, int column) {
+        return row >= 0 && row < 8 && column >= 0 && column < 8;
+    }
+
+    //xorshift64 com poucos bits ligados, que costuma gerar bons números mágicos
+    private static long sparseRandom() {
+        return nextRandom() & nextRandom() & nextRandom();
+    }
+
+    private static long nextRandom() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return seed;
+    }
+}
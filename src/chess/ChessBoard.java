@@ -0,0 +1,224 @@
+package chess;
+
+import boardgame.Board;
+import boardgame.BoardException;
+import boardgame.Piece;
+import boardgame.Position;
+
+/*
+    Tabuleiro 8x8 que, além da matriz de peças do Board,
+    mantém um bitboard (long) por cor e tipo de peça.
+    Casa = linha * 8 + coluna, ou seja, a8 = 0 e h1 = 63.
+*/
+public class ChessBoard extends Board {
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    //Casas claras (a8 é clara)
+    public static final long LIGHT_SQUARES = 0xAA55AA55AA55AA55L;
+
+    private ChessPiece[] squares = new ChessPiece[64];
+    private long[] bitboards = new long[12];
+    private long[] colorOccupancy = new long[2];
+    private long occupancy;
+    private long zobristKey;
+    //Termos da avaliação mantidos a cada colocação/remoção (branco positivo)
+    private int midgameScore;
+    private int endgameScore;
+    private int phase;
+    //Assinatura de material: quantidade de cada cor/tipo em 4 bits, no índice do bitboard
+    private long materialKey;
+
+    //Uma Position por casa, compartilhada por todas as partidas (as posições nunca são alteradas)
+    private static final Position[] POSITIONS = new Position[64];
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            POSITIONS[sq] = new Position(row(sq), column(sq));
+        }
+    }
+
+    public ChessBoard() {
+        super(8, 8);
+    }
+
+    public static int square(int row, int column) {
+        return row * 8 + column;
+    }
+
+    public static int square(Position position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    //Position da casa sem alocar, para os caminhos quentes (doMove/undoMove)
+    public static Position position(int square) {
+        return POSITIONS[square];
+    }
+
+    public static int row(int square) {
+        return square >>> 3;
+    }
+
+    public static int column(int square) {
+        return square & 7;
+    }
+
+    //Peça de uma casa, sem conferência de limites
+    public ChessPiece piece(int square) {
+        return squares[square];
+    }
+
+    @Override
+    public Piece piece(Position position) {
+        if (!positionExists(position)) {
+            throw new BoardException("Position not on the board");
+        }
+        return squares[square(position)];
+    }
+
+    @Override
+    public void placePiece(Piece piece, Position position) {
+        super.placePiece(piece, position);
+
+        ChessPiece p = (ChessPiece) piece;
+        int sq = square(position);
+        long bit = 1L << sq;
+        squares[sq] = p;
+        bitboards[index(p.getColor(), p.getType())] |= bit;
+        colorOccupancy[p.getColor().ordinal()] |= bit;
+        occupancy |= bit;
+        zobristKey ^= Zobrist.piece(p.getColor(), p.getType(), sq);
+
+        int index = index(p.getColor(), p.getType());
+        midgameScore += PieceSquareTables.midgame(index, sq);
+        endgameScore += PieceSquareTables.endgame(index, sq);
+        phase += PieceSquareTables.PHASE[p.getType().ordinal()];
+        materialKey += 1L << (index * 4);
+    }
+
+    @Override
+    public Piece removePiece(Position position) {
+        Piece piece = super.removePiece(position);
+        if (piece == null) {
+            return null;
+        }
+
+        ChessPiece p = (ChessPiece) piece;
+        int sq = square(position);
+        long bit = ~(1L << sq);
+        squares[sq] = null;
+        bitboards[index(p.getColor(), p.getType())] &= bit;
+        colorOccupancy[p.getColor().ordinal()] &= bit;
+        occupancy &= bit;
+        zobristKey ^= Zobrist.piece(p.getColor(), p.getType(), sq);
+
+        int index = index(p.getColor(), p.getType());
+        midgameScore -= PieceSquareTables.midgame(index, sq);
+        endgameScore -= PieceSquareTables.endgame(index, sq);
+        phase -= PieceSquareTables.PHASE[p.getType().ordinal()];
+        materialKey -= 1L << (index * 4);
+
+        return piece;
+    }
+
+    @Override
+    public boolean thereIsAPiece(Position position) {
+        if (!positionExists(position)) {
+            throw new BoardException("Position not on the board");
+        }
+
+        return (occupancy & (1L << square(position))) != 0;
+    }
+
+    public boolean thereIsAPiece(int square) {
+        return (occupancy & (1L << square)) != 0;
+    }
+
+    public long getOccupancy() {
+        return occupancy;
+    }
+
+    public long getOccupancy(Color color) {
+        return colorOccupancy[color.ordinal()];
+    }
+
+    //Parte do hash Zobrist que depende só das peças, atualizada a cada colocação/remoção
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /*
+        Material + tabelas peça-casa, interpolados entre meio-jogo e final
+        pela fase (peças restantes). Centipeões, branco positivo, O(1).
+    */
+    public int getPositionalScore() {
+        int p = Math.min(phase, PieceSquareTables.MAX_PHASE);
+        return (midgameScore * p + endgameScore * (PieceSquareTables.MAX_PHASE - p)) / PieceSquareTables.MAX_PHASE;
+    }
+
+    //Valor de material da peça (o mesmo da avaliação), em centipeões; o rei vale 0
+    public static int getPieceValue(PieceType type) {
+        return PieceSquareTables.value(type);
+    }
+
+    //Igual para posições com o mesmo material, onde quer que as peças estejam
+    public long getMaterialKey() {
+        return materialKey;
+    }
+
+    public int getPieceCount(Color color, PieceType type) {
+        return (int) (materialKey >>> (index(color, type) * 4)) & 0xF;
+    }
+
+    public long getPieces(Color color, PieceType type) {
+        return bitboards[index(color, type)];
+    }
+
+    public long getPieces(PieceType type) {
+        return bitboards[index(Color.WHITE, type)] | bitboards[index(Color.BLACK, type)];
+    }
+
+    /*
+        A casa é atacada pela cor? Parte da própria casa: um cavalo na casa
+        atacaria os mesmos cavalos que a atacam, e o mesmo vale para rei,
+        raios de torre/bispo e peões (com a cor invertida).
+    */
+    public boolean isSquareAttacked(int square, Color byColor) {
+        return isSquareAttacked(square, byColor, occupancy);
+    }
+
+    //Versão com ocupação informada, para testar casas com peças removidas ou movidas
+    public boolean isSquareAttacked(int square, Color byColor, long occupancy) {
+        int c = byColor.ordinal() * 6;
+        Color other = (byColor == Color.WHITE) ? Color.BLACK : Color.WHITE;
+        if ((Attacks.pawn(other, square) & bitboards[c + PieceType.PAWN.ordinal()]) != 0) {
+            return true;
+        }
+        if ((Attacks.knight(square) & bitboards[c + PieceType.KNIGHT.ordinal()]) != 0) {
+            return true;
+        }
+        if ((Attacks.king(square) & bitboards[c + PieceType.KING.ordinal()]) != 0) {
+            return true;
+        }
+
+        long queens = bitboards[c + PieceType.QUEEN.ordinal()];
+        if ((Attacks.rook(square, occupancy) & (bitboards[c + PieceType.ROOK.ordinal()] | queens)) != 0) {
+            return true;
+        }
+        return (Attacks.bishop(square, occupancy) & (bitboards[c + PieceType.BISHOP.ordinal()] | queens)) != 0;
+    }
+
+    //Todas as peças (das duas cores) que atacam a casa com a ocupação dada
+    public long attackersTo(int square, long occupancy) {
+        long rooks = getPieces(PieceType.ROOK) | getPieces(PieceType.QUEEN);
+        long bishops = getPieces(PieceType.BISHOP) | getPieces(PieceType.QUEEN);
+        return (Attacks.pawn(Color.BLACK, square) & getPieces(Color.WHITE, PieceType.PAWN))
+            | (Attacks.pawn(Color.WHITE, square) & getPieces(Color.BLACK, PieceType.PAWN))
+            | (Attacks.knight(square) & getPieces(PieceType.KNIGHT))
+            | (Attacks.king(square) & getPieces(PieceType.KING))
+            | (Attacks.rook(square, occupancy) & rooks)
+            | (Attacks.bishop(square, occupancy) & bishops);
+    }
+
+    private static int index(Color color, PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+}
@@ -1,10 +1,9 @@
 package chess;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
-import boardgame.Board;
 import boardgame.Piece;
 import boardgame.Position;
 import chess_piece.Bishop;
@@ -18,20 +17,224 @@ import chess_piece.Rook;
 public class ChessMatch {
     private int turn;
     private Color currentPlayer;
-    private Board board;
+    private ChessBoard board;
     private boolean check;
     private boolean checkMate;
     private ChessPiece enPassantVulnerable;
     private ChessPiece promoted;
-
-    private List<Piece> piecesOnTheBoard = new ArrayList<>();
+    //Direitos de roque (bits: 1 = K branco, 2 = Q branco, 4 = K preto, 8 = Q preto) e coluna de en passant (-1 = nenhuma)
+    private int castlingRights;
+    private int enPassantColumn = -1;
+    //Meios-lances desde a última captura ou lance de peão (regra dos 50 lances)
+    private int halfmoveClock;
+    private DrawReason drawReason;
+
+    //Hash de cada posição pelo número do lance na pilha (posição inicial = hashBase), em anel
+    private static final int HASH_RING = 256;
+    private long[] positionHashes = new long[HASH_RING];
+    //Posições herdadas de outra partida (cópias), anteriores à pilha desta
+    private int hashBase;
+
+    //Peças em jogo indexadas por cor (Color.ordinal()), com o rei e a casa do rei em cache
+    private PieceSet[] piecesOnTheBoard = { new PieceSet(), new PieceSet() };
+    private ChessPiece[] kings = new ChessPiece[2];
+    private int[] kingSquares = new int[2];
     private List<Piece> capturedPieces = new ArrayList<>();
+    private int[] moveBuffer = new int[Move.MAX_MOVES];
+
+    //Pilha de estados dos lances feitos, reaproveitada entre lances (cresce só em partidas longas)
+    private MoveState[] history = new MoveState[256];
+    private int historySize;
 
     public ChessMatch() {
-        board = new Board(8, 8);
+        board = new ChessBoard();
         turn = 1;
         currentPlayer = Color.WHITE; 
         initialSetup();
+        castlingRights = computeCastlingRights();
+        positionHashes[0] = getHash();
+    }
+
+    /*
+        Partida a partir de uma FEN completa (peças, lado a jogar, roque, en passant,
+        relógio de meios-lances e número do lance; os dois últimos são opcionais).
+        Os direitos de roque viram o moveCount de rei e torres. A leitura é feita
+        caractere a caractere, sem split nem substrings. Qualquer campo inválido
+        (ou posição impossível de jogar) lança ChessException.
+    */
+    public ChessMatch(String fen) {
+        board = new ChessBoard();
+        int n = fen.length();
+        int i = skipSpaces(fen, 0);
+
+        int row = 0;
+        int column = 0;
+        for (; i < n && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (column != 8) {
+                    throw invalidFen(fen, "row " + (8 - row) + " does not have 8 squares");
+                }
+                row++;
+                column = 0;
+            } else if (c >= '1' && c <= '8') {
+                column += c - '0';
+            } else {
+                Color color = Character.isUpperCase(c) ? Color.WHITE : Color.BLACK;
+                ChessPiece piece = fenPiece(Character.toUpperCase(c), color);
+                if (piece == null) {
+                    throw invalidFen(fen, "invalid character '" + c + "'");
+                }
+                if (column > 7) {
+                    throw invalidFen(fen, "row " + (8 - row) + " has more than 8 squares");
+                }
+                if (piece instanceof Pawn && (row == 0 || row == 7)) {
+                    throw invalidFen(fen, "pawn on the first or last row");
+                }
+                if (piece instanceof King && kings[color.ordinal()] != null) {
+                    throw invalidFen(fen, "more than one " + color + " king");
+                }
+                placeNewPiece(piece, ChessBoard.position(ChessBoard.square(row, column)));
+                column++;
+            }
+            if (row > 7) {
+                throw invalidFen(fen, "more than 8 rows");
+            }
+            if (column > 8) {
+                throw invalidFen(fen, "row " + (8 - row) + " has more than 8 squares");
+            }
+        }
+        if (row != 7 || column != 8) {
+            throw invalidFen(fen, "the board must have 8 rows of 8 squares");
+        }
+        for (Color color : Color.values()) {
+            if (kings[color.ordinal()] == null) {
+                throw invalidFen(fen, "there is no " + color + " king");
+            }
+        }
+
+        i = skipSpaces(fen, i);
+        char side = (i < n) ? fen.charAt(i) : ' ';
+        if ((side != 'w' && side != 'b') || (i + 1 < n && fen.charAt(i + 1) != ' ')) {
+            throw invalidFen(fen, "side to move must be 'w' or 'b'");
+        }
+        currentPlayer = (side == 'b') ? Color.BLACK : Color.WHITE;
+        i = skipSpaces(fen, i + 1);
+
+        boolean whiteKingside = false, whiteQueenside = false, blackKingside = false, blackQueenside = false;
+        if (i >= n) {
+            throw invalidFen(fen, "missing castling rights");
+        } else if (fen.charAt(i) == '-') {
+            i++;
+        } else {
+            for (; i < n && fen.charAt(i) != ' '; i++) {
+                switch (fen.charAt(i)) {
+                    case 'K': whiteKingside = true; break;
+                    case 'Q': whiteQueenside = true; break;
+                    case 'k': blackKingside = true; break;
+                    case 'q': blackQueenside = true; break;
+                    default: throw invalidFen(fen, "invalid castling rights");
+                }
+            }
+        }
+        if (i < n && fen.charAt(i) != ' ') {
+            throw invalidFen(fen, "invalid castling rights");
+        }
+        markMoved(Color.WHITE, whiteKingside, whiteQueenside);
+        markMoved(Color.BLACK, blackKingside, blackQueenside);
+        castlingRights = computeCastlingRights();
+
+        i = skipSpaces(fen, i);
+        if (i >= n) {
+            throw invalidFen(fen, "missing en passant square");
+        } else if (fen.charAt(i) == '-') {
+            i++;
+        } else {
+            //A casa de en passant fica atrás do peão que avançou duas casas
+            char epRow = (currentPlayer == Color.WHITE) ? '6' : '3';
+            if (i + 1 >= n || fen.charAt(i) < 'a' || fen.charAt(i) > 'h' || fen.charAt(i + 1) != epRow) {
+                throw invalidFen(fen, "invalid en passant square");
+            }
+            int sq = ChessBoard.square('8' - fen.charAt(i + 1), fen.charAt(i) - 'a');
+            ChessPiece pawn = board.piece(sq + ((currentPlayer == Color.WHITE) ? 8 : -8));
+            if (!(pawn instanceof Pawn) || pawn.getColor() == currentPlayer || board.thereIsAPiece(sq)) {
+                throw invalidFen(fen, "no pawn can be captured en passant on " + fen.charAt(i) + fen.charAt(i + 1));
+            }
+            enPassantVulnerable = pawn;
+            i += 2;
+        }
+        if (i < n && fen.charAt(i) != ' ') {
+            throw invalidFen(fen, "invalid en passant square");
+        }
+
+        i = skipSpaces(fen, i);
+        int halfmoves = 0;
+        int fullmoves = 0;
+        if (i < n) {
+            int digits = i;
+            for (; i < n && fen.charAt(i) >= '0' && fen.charAt(i) <= '9' && i - digits < 6; i++) {
+                halfmoves = halfmoves * 10 + (fen.charAt(i) - '0');
+            }
+            if (i == digits || (i < n && fen.charAt(i) != ' ')) {
+                throw invalidFen(fen, "invalid halfmove clock");
+            }
+            i = skipSpaces(fen, i);
+            digits = i;
+            for (; i < n && fen.charAt(i) >= '0' && fen.charAt(i) <= '9' && i - digits < 6; i++) {
+                fullmoves = fullmoves * 10 + (fen.charAt(i) - '0');
+            }
+            if ((i == digits && i < n) || skipSpaces(fen, i) < n) {
+                throw invalidFen(fen, "invalid fullmove number");
+            }
+        }
+        halfmoveClock = halfmoves;
+        //turn conta meios-lances a partir de 1: lance N das brancas = 2N - 1, das pretas = 2N
+        turn = 2 * Math.max(fullmoves, 1) - ((currentPlayer == Color.WHITE) ? 1 : 0);
+
+        //O lado que acabou de jogar não pode ter o rei atacado
+        if (testCheck(opponent(currentPlayer))) {
+            throw invalidFen(fen, "the side not to move is in check");
+        }
+        enPassantColumn = enPassantColumn();
+        check = testCheck(currentPlayer);
+        positionHashes[0] = getHash();
+    }
+
+    //Cópia independente da posição (peças novas em um tabuleiro novo), sem a pilha de lances (não dá para desfazer)
+    public ChessMatch(ChessMatch other) {
+        board = new ChessBoard();
+        turn = other.turn;
+        currentPlayer = other.currentPlayer;
+        check = other.check;
+        checkMate = other.checkMate;
+        castlingRights = other.castlingRights;
+        enPassantColumn = other.enPassantColumn;
+        halfmoveClock = other.halfmoveClock;
+        drawReason = other.drawReason;
+        capturedPieces.addAll(other.capturedPieces);
+
+        for (int sq = 0; sq < 64; sq++) {
+            ChessPiece p = other.board.piece(sq);
+            if (p != null) {
+                ChessPiece copy = newPiece(p.getType(), p.getColor());
+                copy.setMoveCount(p.getMoveCount());
+                placeNewPiece(copy, ChessBoard.position(sq));
+                if (p == other.enPassantVulnerable) {
+                    enPassantVulnerable = copy;
+                }
+                if (p == other.promoted) {
+                    promoted = copy;
+                }
+            }
+        }
+
+        //Hashes desde o último lance irreversível, para a busca enxergar as repetições do jogo
+        hashBase = other.hashBase + other.historySize;
+        int kept = Math.min(Math.min(halfmoveClock, hashBase), HASH_RING - 1);
+        for (int back = 0; back <= kept; back++) {
+            int i = (hashBase - back) & (HASH_RING - 1);
+            positionHashes[i] = other.positionHashes[i];
+        }
     }
 
     public int getTurn() {
@@ -58,6 +261,151 @@ public class ChessMatch {
         return promoted;
     }
 
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public boolean getDraw() {
+        return drawReason != null;
+    }
+
+    //Motivo do empate, ou null se a partida não terminou empatada
+    public DrawReason getDrawReason() {
+        return drawReason;
+    }
+
+    /*
+        Quantas vezes a posição atual já apareceu (contando a atual). Só olha as
+        posições desde o último lance irreversível (captura ou lance de peão),
+        de duas em duas, já que antes disso nenhuma pode ser igual.
+    */
+    public int getRepetitions() {
+        long hash = getHash();
+        int current = hashBase + historySize;
+        int limit = Math.min(Math.min(halfmoveClock, current), HASH_RING - 1);
+        int count = 1;
+        for (int back = 4; back <= limit; back += 2) {
+            if (positionHashes[(current - back) & (HASH_RING - 1)] == hash) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    //Posição repetida ao menos uma vez (para a busca, que trata isso como empate)
+    public boolean isRepetition() {
+        return getRepetitions() > 1;
+    }
+
+    /*
+        Nenhum lado consegue dar mate: só reis, ou um cavalo ou bispo a mais,
+        ou só bispos e todos em casas da mesma cor. Lido da assinatura de material.
+    */
+    public boolean isInsufficientMaterial() {
+        long heavy = 0;
+        for (Color color : Color.values()) {
+            heavy += board.getPieceCount(color, PieceType.PAWN) + board.getPieceCount(color, PieceType.ROOK)
+                + board.getPieceCount(color, PieceType.QUEEN);
+        }
+        if (heavy != 0) {
+            return false;
+        }
+
+        int knights = board.getPieceCount(Color.WHITE, PieceType.KNIGHT) + board.getPieceCount(Color.BLACK, PieceType.KNIGHT);
+        int bishops = board.getPieceCount(Color.WHITE, PieceType.BISHOP) + board.getPieceCount(Color.BLACK, PieceType.BISHOP);
+        if (knights + bishops <= 1) {
+            return true;
+        }
+        if (knights > 0) {
+            return false;
+        }
+        long b = board.getPieces(PieceType.BISHOP);
+        return (b & ChessBoard.LIGHT_SQUARES) == 0 || (b & ~ChessBoard.LIGHT_SQUARES) == 0;
+    }
+
+    //Número do lance como na FEN: começa em 1 e sobe depois de cada lance das pretas
+    public int getFullmoveNumber() {
+        return (turn + (checkMate ? 1 : 0) + 1) / 2;
+    }
+
+    /*
+        Lado que de fato tem a vez no tabuleiro. Difere de currentPlayer só depois
+        do checkmate, quando a vez não passa (getCurrentPlayer() é o vencedor) mas
+        a posição é a do lado que levou o mate.
+    */
+    private Color sideToMove() {
+        return checkMate ? opponent(currentPlayer) : currentPlayer;
+    }
+
+    //FEN da posição atual; a casa de en passant aparece sempre que houve avanço duplo
+    public String toFen() {
+        StringBuilder sb = new StringBuilder(90);
+        for (int row = 0; row < 8; row++) {
+            int empty = 0;
+            for (int column = 0; column < 8; column++) {
+                ChessPiece p = board.piece(ChessBoard.square(row, column));
+                if (p == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    sb.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                char c = "PNBRQK".charAt(p.getType().ordinal());
+                sb.append((p.getColor() == Color.WHITE) ? c : Character.toLowerCase(c));
+            }
+            if (empty > 0) {
+                sb.append((char) ('0' + empty));
+            }
+            if (row < 7) {
+                sb.append('/');
+            }
+        }
+
+        sb.append(' ').append((sideToMove() == Color.WHITE) ? 'w' : 'b').append(' ');
+        if (castlingRights == 0) {
+            sb.append('-');
+        } else {
+            if ((castlingRights & 1) != 0) sb.append('K');
+            if ((castlingRights & 2) != 0) sb.append('Q');
+            if ((castlingRights & 4) != 0) sb.append('k');
+            if ((castlingRights & 8) != 0) sb.append('q');
+        }
+
+        sb.append(' ');
+        if (enPassantVulnerable == null) {
+            sb.append('-');
+        } else {
+            int sq = enPassantVulnerable.getSquare() + ((enPassantVulnerable.getColor() == Color.WHITE) ? 8 : -8);
+            sb.append((char) ('a' + ChessBoard.column(sq))).append((char) ('8' - ChessBoard.row(sq)));
+        }
+
+        sb.append(' ').append(halfmoveClock).append(' ').append(getFullmoveNumber());
+        return sb.toString();
+    }
+
+    //Tabuleiro da partida, para leitura dos bitboards (motor de busca, avaliação)
+    public ChessBoard getBoard() {
+        return board;
+    }
+
+    /*
+        Hash Zobrist de 64 bits da posição: peças (mantidas pelo ChessBoard),
+        lado a jogar, direitos de roque e coluna de en passant. Cada parte é
+        atualizada incrementalmente, então a leitura é O(1).
+    */
+    public long getHash() {
+        long hash = board.getZobristKey() ^ Zobrist.castling(castlingRights);
+        if (enPassantColumn >= 0) {
+            hash ^= Zobrist.enPassant(enPassantColumn);
+        }
+        if (sideToMove() == Color.BLACK) {
+            hash ^= Zobrist.BLACK_TO_MOVE;
+        }
+        return hash;
+    }
+
     
     public ChessPiece[][] getPieces() {
         ChessPiece[][] match = new ChessPiece[board.getRows()][board.getColumns()];
@@ -70,6 +418,24 @@ public class ChessMatch {
         return match;
     }
 
+    /*
+        Lances legais do jogador da vez (codificados como em Move), escritos em moves
+        a partir da posição 0. Retorna a quantidade; o buffer deve ter Move.MAX_MOVES posições.
+    */
+    public int generateLegalMoves(int[] moves) {
+        return MoveGenerator.generate(board, currentPlayer, kingSquares[currentPlayer.ordinal()], enPassantVulnerable, moves);
+    }
+
+    //Só capturas e promoções (para a busca quiescente); mesmo formato de generateLegalMoves
+    public int generateLegalCaptures(int[] moves) {
+        return MoveGenerator.generate(board, currentPlayer, kingSquares[currentPlayer.ordinal()], enPassantVulnerable, moves, true);
+    }
+
+    public int[] generateLegalMoves() {
+        int[] moves = new int[Move.MAX_MOVES];
+        return Arrays.copyOf(moves, generateLegalMoves(moves));
+    }
+
     public boolean[][] possibleMoves(ChessPosition sourcePosition) {
         Position position = sourcePosition.toPosition();
         validateSourcePosition(position);
@@ -77,49 +443,176 @@ public class ChessMatch {
     }
 
     public ChessPiece performChessMove (ChessPosition sourcePosition, ChessPosition targetPosition) {
-        //Convertendo as posições de matriz para posições de xadez
-        Position source = sourcePosition.toPosition();
-        Position target = targetPosition.toPosition();
-
-        validateSourcePosition(source);
-        validateTargetPosition(source, target);
-        Piece capturedPiece = makeMove (source, target);
+        int source = square(sourcePosition);
+        int target = square(targetPosition);
+        MoveResult result = validateMove(source, target);
+        if (result != MoveResult.OK) {
+            throw new ChessException(result.getMessage());
+        }
 
+        return applyMove(source, target, null);
+    }
 
-        if(testCheck(currentPlayer)) {
-            undoMove(source, target, capturedPiece);
-            throw new ChessException("You can't put yourself in check");
+    /*
+        Mesmo lance de performChessMove, mas um lance recusado vira o valor de
+        retorno em vez de exceção, e a recusa não aloca nada (validação por
+        bitboards e pelo gerador de lances legais, sem jogar e desfazer).
+        Casas na numeração do ChessBoard; promotion = null promove a dama.
+    */
+    public MoveResult tryMove(int source, int target, PieceType promotion) {
+        MoveResult result = validateMove(source, target);
+        if (result == MoveResult.OK) {
+            applyMove(source, target, promotion);
         }
+        return result;
+    }
 
-        ChessPiece movedPiece = (ChessPiece)board.piece(target);
+    public MoveResult tryMove(int source, int target) {
+        return tryMove(source, target, null);
+    }
 
-        //Special move promotion
-        promoted = null;
-        if(movedPiece instanceof Pawn) {
-            if(movedPiece.getColor() == Color.WHITE && target.getRow() == 0 || movedPiece.getColor() == Color.BLACK && target.getRow() == 7) {
-                promoted = (ChessPiece)board.piece(target);
-                promoted = replacePromotedPiece("Q");
-            }
+    public MoveResult tryMove(ChessPosition sourcePosition, ChessPosition targetPosition) {
+        return tryMove(square(sourcePosition), square(targetPosition), null);
+    }
+
+    /*
+        Lance já validado: vai para a mesma pilha de doMove (então undoMove desfaz
+        lances do jogo também) e ainda testa o checkmate. Como sempre foi, no
+        checkmate a vez não passa: getCurrentPlayer() fica sendo o vencedor.
+    */
+    private ChessPiece applyMove(int source, int target, PieceType promotion) {
+        ChessPiece movedPiece = board.piece(source);
+        int move = Move.encode(source, target);
+        int lastRow = (movedPiece.getColor() == Color.WHITE) ? 0 : 7;
+        if (movedPiece instanceof Pawn && ChessBoard.row(target) == lastRow) {
+            //Como em replacePromotedPiece, tipo inválido (ou nenhum) fica dama
+            boolean valid = promotion != null && promotion != PieceType.PAWN && promotion != PieceType.KING;
+            move = Move.encode(source, target, valid ? promotion : PieceType.QUEEN);
         }
 
-        //Verificando se o oponente está em check
-        check = (testCheck(opponent(currentPlayer))) ? true : false;
-        if(testCheckMate(opponent(currentPlayer))) {
+        doMove(move);
+        int legalMoves = generateLegalMoves(moveBuffer);
+        if (legalMoves == 0 && check) {
             checkMate = true;
+            turn--;
+            currentPlayer = opponent(currentPlayer);
+        } else if (legalMoves == 0) {
+            drawReason = DrawReason.STALEMATE;
+        } else if (getRepetitions() >= 3) {
+            drawReason = DrawReason.THREEFOLD_REPETITION;
+        } else if (halfmoveClock >= 100) {
+            drawReason = DrawReason.FIFTY_MOVES;
+        } else if (isInsufficientMaterial()) {
+            drawReason = DrawReason.INSUFFICIENT_MATERIAL;
+        }
+
+        return (ChessPiece) history[historySize - 1].capturedPiece;
+    }
+
+    /*
+        Joga um lance codificado (ver Move) do jogador da vez, sem validar a legalidade:
+        o lance deve vir de generateLegalMoves. Desfeito por undoMove(), que restaura
+        todo o estado de antes. O(1); as casas usam as Position compartilhadas de
+        ChessBoard, então depois que a pilha cresce só a promoção aloca (a peça nova).
+        Não testa checkmate (getCheckMate() fica false), isso é papel de performChessMove/tryMove.
+    */
+    public void doMove(int move) {
+        if (historySize == history.length) {
+            history = Arrays.copyOf(history, historySize * 2);
         }
-        else { 
-            
-            nextTurn();
+        MoveState state = history[historySize];
+        if (state == null) {
+            state = new MoveState();
+            history[historySize] = state;
         }
+        historySize++;
+
+        state.move = move;
+        state.turn = turn;
+        state.currentPlayer = currentPlayer;
+        state.check = check;
+        state.checkMate = checkMate;
+        state.drawReason = drawReason;
+        state.promoted = promoted;
+        state.enPassantVulnerable = enPassantVulnerable;
+        state.enPassantColumn = enPassantColumn;
+        state.castlingRights = castlingRights;
+        state.halfmoveClock = halfmoveClock;
+        state.promotedPawn = null;
+
+        int from = Move.from(move);
+        int to = Move.to(move);
+        Position target = ChessBoard.position(to);
+        ChessPiece movedPiece = board.piece(from);
+        state.capturedPiece = makeMove(ChessBoard.position(from), target);
 
-        //Special move en passant
-        if(movedPiece instanceof Pawn && target.getRow() == source.getRow() - 2 || target.getRow() == source.getRow() + 2 ) {
+        promoted = null;
+        PieceType promotion = Move.promotion(move);
+        if (promotion != null) {
+            state.promotedPawn = movedPiece;
+            promoted = newPiece(promotion, movedPiece.getColor());
+            replacePiece(target, promoted);
+        }
+
+        //Special move en passant (antes do teste de check, que pode depender dele)
+        if (movedPiece instanceof Pawn && (to - from == 16 || from - to == 16)) {
             enPassantVulnerable = movedPiece;
         } else {
             enPassantVulnerable = null;
         }
+        enPassantColumn = enPassantColumn();
 
-        return (ChessPiece) capturedPiece;
+        checkMate = false;
+        drawReason = null;
+        nextTurn();
+        check = testCheck(currentPlayer);
+        positionHashes[(hashBase + historySize) & (HASH_RING - 1)] = getHash();
+    }
+
+    //Desfaz o último lance (de doMove, performChessMove ou tryMove)
+    public void undoMove() {
+        if (historySize == 0) {
+            throw new IllegalStateException("There is no move to undo");
+        }
+        MoveState state = history[--historySize];
+
+        turn = state.turn;
+        currentPlayer = state.currentPlayer;
+        check = state.check;
+        checkMate = state.checkMate;
+        drawReason = state.drawReason;
+        promoted = state.promoted;
+        //Restaurado antes de mexer no tabuleiro: o undo do en passant depende dele
+        enPassantVulnerable = state.enPassantVulnerable;
+        enPassantColumn = state.enPassantColumn;
+        halfmoveClock = state.halfmoveClock;
+
+        int from = Move.from(state.move);
+        int to = Move.to(state.move);
+        Position target = ChessBoard.position(to);
+        if (state.promotedPawn != null) {
+            replacePiece(target, state.promotedPawn);
+        }
+        undoMove(ChessBoard.position(from), target, state.capturedPiece);
+        castlingRights = state.castlingRights;
+        state.capturedPiece = null;
+        state.promotedPawn = null;
+        state.promoted = null;
+        state.enPassantVulnerable = null;
+    }
+
+    //Quantos lances podem ser desfeitos (lances feitos nesta ChessMatch)
+    public int getMoveCount() {
+        return historySize;
+    }
+
+    //Lances jogados desde a posição inicial da ChessMatch, codificados como em Move
+    public int[] getMoves() {
+        int[] moves = new int[historySize];
+        for (int i = 0; i < historySize; i++) {
+            moves[i] = history[i].move;
+        }
+        return moves;
     }
 
     public ChessPiece replacePromotedPiece(String type) {
@@ -131,24 +624,59 @@ public class ChessMatch {
             return promoted;
         }
 
+        /*
+            Lance de promoção desta partida: desfaz e joga de novo com a peça escolhida,
+            pelo mesmo caminho de tryMove, para refazer hash, check, mate e empates
+        */
+        if (historySize > 0 && Move.promotion(history[historySize - 1].move) != null) {
+            int move = history[historySize - 1].move;
+            undoMove();
+            applyMove(Move.from(move), Move.to(move), pieceType(type));
+            return promoted;
+        }
+
+        //Cópia feita logo depois da promoção: sem o lance na pilha, só troca a peça
         Position pos = promoted.getChessPosition().toPosition();
-        Piece p = board.removePiece(pos);
-        piecesOnTheBoard.remove(p);
+        ChessPiece p = (ChessPiece)board.removePiece(pos);
+        pieces(p.getColor()).remove(p);
 
         ChessPiece newPiece = newPiece(type, promoted.getColor());
         board.placePiece(newPiece, pos);
-        piecesOnTheBoard.add(newPiece);
+        pieces(newPiece.getColor()).add(newPiece);
+        promoted = newPiece;
+        check = testCheck(currentPlayer);
+        positionHashes[(hashBase + historySize) & (HASH_RING - 1)] = getHash();
 
         return newPiece;
+    }
 
+    //Troca a peça de uma casa (promoção), mantendo o conjunto de peças em jogo
+    private void replacePiece(Position position, ChessPiece piece) {
+        ChessPiece old = (ChessPiece)board.removePiece(position);
+        pieces(old.getColor()).remove(old);
+        board.placePiece(piece, position);
+        pieces(piece.getColor()).add(piece);
+    }
 
+    private ChessPiece newPiece(PieceType type, Color color) {
+        if(type == PieceType.PAWN) return new Pawn(board, color, this);
+        if(type == PieceType.KING) return new King(board, color);
+        if(type == PieceType.BISHOP) return new Bishop(board, color);
+        if(type == PieceType.KNIGHT) return new Knight(board, color);
+        if(type == PieceType.QUEEN) return new Queen(board, color);
+        return new Rook(board, color);
     }
 
     private ChessPiece newPiece(String type, Color color) {
-        if(type.equals("B")) return new Bishop(board, color);
-        if(type.equals("N")) return new Knight(board, color);
-        if(type.equals("Q")) return new Queen(board, color);
-        return new Rook(board, color);
+        return newPiece(pieceType(type), color);
+    }
+
+    //Letra da peça escolhida na promoção ("B", "N", "R" ou "Q")
+    private static PieceType pieceType(String type) {
+        if(type.equals("B")) return PieceType.BISHOP;
+        if(type.equals("N")) return PieceType.KNIGHT;
+        if(type.equals("Q")) return PieceType.QUEEN;
+        return PieceType.ROOK;
     }
     
     private Piece makeMove(Position sourcePosition, Position targetPosition) {
@@ -158,14 +686,22 @@ public class ChessMatch {
         board.placePiece(p, targetPosition);
 
         if (capturedPiece != null) {
-            piecesOnTheBoard.remove(capturedPiece);
-            capturedPieces.add(capturedPiece);
+            removeFromPlay((ChessPiece)capturedPiece);
+        }
+
+        if (p instanceof King) {
+            kingSquares[p.getColor().ordinal()] = ChessBoard.square(targetPosition);
+        }
+
+        //Só rei ou torre movidos, ou torre capturada, mudam os direitos de roque
+        if (p instanceof King || p instanceof Rook || capturedPiece instanceof Rook) {
+            castlingRights = computeCastlingRights();
         }
 
         //# Special move Castling kingside rook
         if (p instanceof King && targetPosition.getColumn() == sourcePosition.getColumn() + 2 ) {
-            Position sourceTorre = new Position(sourcePosition.getRow(), sourcePosition.getColumn() + 3);
-            Position targetTorre = new Position(sourcePosition.getRow(), sourcePosition.getColumn() + 1);
+            Position sourceTorre = ChessBoard.position(ChessBoard.square(sourcePosition) + 3);
+            Position targetTorre = ChessBoard.position(ChessBoard.square(sourcePosition) + 1);
             ChessPiece rook = (ChessPiece)board.removePiece(sourceTorre);
             board.placePiece(rook, targetTorre);
             rook.increaseMoveCount();
@@ -174,8 +710,8 @@ public class ChessMatch {
 
         //# Special move Castling queenside rook
         if (p instanceof King && targetPosition.getColumn() == sourcePosition.getColumn() - 2 ) {
-            Position sourceTorre = new Position(sourcePosition.getRow(), sourcePosition.getColumn() - 4);
-            Position targetTorre = new Position(sourcePosition.getRow(), sourcePosition.getColumn() - 1);
+            Position sourceTorre = ChessBoard.position(ChessBoard.square(sourcePosition) - 4);
+            Position targetTorre = ChessBoard.position(ChessBoard.square(sourcePosition) - 1);
             ChessPiece rook = (ChessPiece)board.removePiece(sourceTorre);
             board.placePiece(rook, targetTorre);
             rook.increaseMoveCount();
@@ -187,17 +723,19 @@ public class ChessMatch {
            if(sourcePosition.getColumn() != targetPosition.getColumn() && capturedPiece == null) {
                Position pawnPosition;
                if(p.getColor() == Color.WHITE) {
-                   pawnPosition = new Position(targetPosition.getRow() + 1, targetPosition.getColumn());
+                   pawnPosition = ChessBoard.position(ChessBoard.square(targetPosition) + 8);
                } else {
-                pawnPosition = new Position(targetPosition.getRow() - 1, targetPosition.getColumn());
+                pawnPosition = ChessBoard.position(ChessBoard.square(targetPosition) - 8);
                }
 
                capturedPiece = board.removePiece(pawnPosition);
-               capturedPieces.add(capturedPiece);
-               piecesOnTheBoard.remove(capturedPiece);
+               removeFromPlay((ChessPiece)capturedPiece);
            } 
         }
 
+        //Lance de peão ou captura zera a contagem da regra dos 50 lances (o undo restaura pela pilha)
+        halfmoveClock = (p instanceof Pawn || capturedPiece != null) ? 0 : halfmoveClock + 1;
+
         return capturedPiece;
     }
 
@@ -206,16 +744,21 @@ public class ChessMatch {
         p.decreaseMoveCount();
         board.placePiece(p, sourcePosition);
 
+        if (p instanceof King) {
+            kingSquares[p.getColor().ordinal()] = ChessBoard.square(sourcePosition);
+        }
+
         if (capturedPiece != null) {
             board.placePiece(capturedPiece, targetPosition);
-            capturedPieces.remove(capturedPiece);
-            piecesOnTheBoard.add(capturedPiece);
+            //Desfazer segue a ordem inversa, então a peça capturada é sempre a última da lista
+            capturedPieces.remove(capturedPieces.size() - 1);
+            pieces(((ChessPiece)capturedPiece).getColor()).add((ChessPiece)capturedPiece);
         }
 
         //# Special move Castling kingside rook
         if (p instanceof King && targetPosition.getColumn() == sourcePosition.getColumn() + 2 ) {
-            Position sourceTorre = new Position(sourcePosition.getRow(), sourcePosition.getColumn() + 3);
-            Position targetTorre = new Position(sourcePosition.getRow(), sourcePosition.getColumn() + 1);
+            Position sourceTorre = ChessBoard.position(ChessBoard.square(sourcePosition) + 3);
+            Position targetTorre = ChessBoard.position(ChessBoard.square(sourcePosition) + 1);
             ChessPiece rook = (ChessPiece)board.removePiece(targetTorre);
             board.placePiece(rook, sourceTorre);
             rook.decreaseMoveCount();
@@ -224,8 +767,8 @@ public class ChessMatch {
 
         //# Special move Castling queenside rook
         if (p instanceof King && targetPosition.getColumn() == sourcePosition.getColumn() - 2 ) {
-            Position sourceTorre = new Position(sourcePosition.getRow(), sourcePosition.getColumn() - 4);
-            Position targetTorre = new Position(sourcePosition.getRow(), sourcePosition.getColumn() - 1);
+            Position sourceTorre = ChessBoard.position(ChessBoard.square(sourcePosition) - 4);
+            Position targetTorre = ChessBoard.position(ChessBoard.square(sourcePosition) - 1);
             ChessPiece rook = (ChessPiece)board.removePiece(targetTorre);
             board.placePiece(rook, sourceTorre);
             rook.decreaseMoveCount();
@@ -238,34 +781,100 @@ public class ChessMatch {
                 ChessPiece pawn = (ChessPiece)board.removePiece(targetPosition);               
                 Position pawnPosition;
                 if(p.getColor() == Color.WHITE) {
-                    pawnPosition = new Position(3, targetPosition.getColumn());
+                    pawnPosition = ChessBoard.position(ChessBoard.square(3, targetPosition.getColumn()));
                 } else {
-                 pawnPosition = new Position(4, targetPosition.getColumn());
+                 pawnPosition = ChessBoard.position(ChessBoard.square(4, targetPosition.getColumn()));
                 }
 
                 board.placePiece(pawn, pawnPosition);
             } 
          }
 
+        if (p instanceof King || p instanceof Rook || capturedPiece instanceof Rook) {
+            castlingRights = computeCastlingRights();
+        }
     }
 
-    private void validateSourcePosition(Position sourcePosition) {
-        if (!board.thereIsAPiece(sourcePosition)) {
-            throw new ChessException("There is no piece on source position");
+    //Roque disponível quando rei e torre estão nas casas iniciais sem terem se movido
+    private int computeCastlingRights() {
+        int rights = 0;
+        if (testCastlingPieces(Color.WHITE, 60, 63)) rights |= 1;
+        if (testCastlingPieces(Color.WHITE, 60, 56)) rights |= 2;
+        if (testCastlingPieces(Color.BLACK, 4, 7)) rights |= 4;
+        if (testCastlingPieces(Color.BLACK, 4, 0)) rights |= 8;
+        return rights;
+    }
+
+    private boolean testCastlingPieces(Color color, int kingSquare, int rookSquare) {
+        ChessPiece king = board.piece(kingSquare);
+        ChessPiece rook = board.piece(rookSquare);
+        return king instanceof King && king.getColor() == color && king.getMoveCount() == 0
+            && rook instanceof Rook && rook.getColor() == color && rook.getMoveCount() == 0;
+    }
+
+    //Coluna de en passant só entra no hash se algum peão adversário puder de fato capturar
+    private int enPassantColumn() {
+        if (enPassantVulnerable == null) {
+            return -1;
         }
-        if(currentPlayer != ((ChessPiece)board.piece(sourcePosition)).getColor()) {
-            throw new ChessException("The chosen piece is not yours");   
+        int sq = enPassantVulnerable.getSquare();
+        long adjacent = ((1L << sq) << 1 & ~ChessBoard.FILE_A) | ((1L << sq) >>> 1 & ~ChessBoard.FILE_H);
+        if ((adjacent & board.getPieces(opponent(enPassantVulnerable.getColor()), PieceType.PAWN)) == 0) {
+            return -1;
         }
+        return ChessBoard.column(sq);
+    }
 
-        if(!board.piece(sourcePosition).isThereAnyPossibleMove()) {
-            throw new ChessException("There is no possible for the chosen piece");
+    private void validateSourcePosition(Position sourcePosition) {
+        MoveResult result = validateSource(ChessBoard.square(sourcePosition));
+        if (result != MoveResult.OK) {
+            throw new ChessException(result.getMessage());
         }
     }
 
-    private void validateTargetPosition(Position sourcePosition, Position targePosition) {
-        if (!board.piece(sourcePosition).possibleMove(targePosition)) {
-            throw new ChessException("The chosen piece can't move to the target position");
+    private MoveResult validateSource(int source) {
+        ChessPiece piece = board.piece(source);
+        if (piece == null) {
+            return MoveResult.NO_PIECE;
         }
+        if (piece.getColor() != currentPlayer) {
+            return MoveResult.NOT_YOUR_PIECE;
+        }
+        if (piece.possibleMovesMask() == 0) {
+            return MoveResult.NO_POSSIBLE_MOVES;
+        }
+        return MoveResult.OK;
+    }
+
+    //Mesmas verificações e na mesma ordem que as exceções antigas; o check próprio vem da lista de lances legais
+    private MoveResult validateMove(int source, int target) {
+        if (checkMate || drawReason != null) {
+            return MoveResult.GAME_OVER;
+        }
+        if (source < 0 || source > 63 || target < 0 || target > 63) {
+            return MoveResult.INVALID_SQUARE;
+        }
+        MoveResult result = validateSource(source);
+        if (result != MoveResult.OK) {
+            return result;
+        }
+        if ((board.piece(source).possibleMovesMask() & (1L << target)) == 0) {
+            return MoveResult.ILLEGAL_TARGET;
+        }
+
+        int move = Move.encode(source, target);
+        int count = generateLegalMoves(moveBuffer);
+        for (int i = 0; i < count; i++) {
+            //Ignora a peça da promoção: qualquer uma serve para saber se o lance é legal
+            if ((moveBuffer[i] & 0xFFF) == move) {
+                return MoveResult.OK;
+            }
+        }
+        return MoveResult.SELF_CHECK;
+    }
+
+    private static int square(ChessPosition position) {
+        return ChessBoard.square(8 - position.getRow(), position.getColumn() - 'a');
     }
 
     private void nextTurn() {
@@ -280,63 +889,92 @@ public class ChessMatch {
     }
 
 
-    //Faz a varredura da partida para buscar se há reis na partida baseado em uma cor.
+    //Rei de uma cor, guardado quando a peça é colocada no tabuleiro
     private ChessPiece king(Color color) {
-        List<Piece> list = piecesOnTheBoard.stream().filter(x -> ((ChessPiece)x).getColor() == color).collect(Collectors.toList());
-        for (Piece p : list) {
-            if(p instanceof King) {
-                return (ChessPiece) p;
-            }
+        ChessPiece king = kings[color.ordinal()];
+        if (king == null) {
+            throw new IllegalStateException("There is no " + color + " king on the board");
         }
-        throw new IllegalStateException("There is no " + color + " king on the board");
+        return king;
     }
 
+    private PieceSet pieces(Color color) {
+        return piecesOnTheBoard[color.ordinal()];
+    }
 
-    private boolean testCheckMate(Color color) {
-        if (!testCheck(color)) {
-            return false;
-        }
-        List <Piece> list = piecesOnTheBoard.stream().filter(x -> ((ChessPiece) x).getColor() == color).collect(Collectors.toList());
-
-        for (Piece p : list) {
-            boolean[][] mat = p.possibleMoves();
-            for (int i = 0; i < board.getRows(); i++) {
-                for (int j = 0; j < board.getColumns(); j++) {
-                    if(mat[i][j]) {
-                       Position source = ((ChessPiece)p).getChessPosition().toPosition();
-                       Position target = new Position(i, j);
-                       Piece capturedPiece = makeMove(source, target); 
-                       boolean testCheck = testCheck(color);
-                       undoMove(source, target, capturedPiece);
-                       if(!testCheck) {
-                           return false;
-                       }
-                    }
-                }
-            }
-        }
-
-        return true;
+    private void removeFromPlay(ChessPiece piece) {
+        pieces(piece.getColor()).remove(piece);
+        capturedPieces.add(piece);
     }
 
 
     private boolean testCheck (Color color) {
-        Position kingPosition = king(color).getChessPosition().toPosition();
-        List<Piece> opponentPieces = piecesOnTheBoard.stream().filter(x -> ((ChessPiece)x).getColor() == opponent(color)).collect(Collectors.toList());
-        for(Piece p : opponentPieces) {
-            boolean[][] mat = p.possibleMoves();
-            if(mat[kingPosition.getRow()][kingPosition.getColumn()] == true) {
-                return true;
-            }
+        king(color); //Garante que há rei da cor
+        return board.isSquareAttacked(kingSquares[color.ordinal()], opponent(color));
+    }
+
+
+    private ChessPiece fenPiece(char c, Color color) {
+        switch (c) {
+            case 'P': return new Pawn(board, color, this);
+            case 'N': return new Knight(board, color);
+            case 'B': return new Bishop(board, color);
+            case 'R': return new Rook(board, color);
+            case 'Q': return new Queen(board, color);
+            case 'K': return new King(board, color);
+            default: return null;
         }
+    }
 
-        return false;
+    private static ChessException invalidFen(String fen, String reason) {
+        return new ChessException("Invalid FEN (" + reason + "): " + fen);
     }
 
+    /*
+        Sem o direito de roque, a peça conta como já movida. Peões fora da
+        fileira inicial também, para não ganharem o avanço de duas casas.
+    */
+    private void markMoved(Color color, boolean kingside, boolean queenside) {
+        int homeRow = (color == Color.WHITE) ? 7 : 0;
+        int pawnRow = (color == Color.WHITE) ? 6 : 1;
+        PieceSet set = pieces(color);
+        for (int k = 0; k < set.size(); k++) {
+            ChessPiece p = set.get(k);
+            int sq = p.getSquare();
+            boolean moved;
+            if (p instanceof King) {
+                moved = (!kingside && !queenside) || sq != ChessBoard.square(homeRow, 4);
+            } else if (p instanceof Rook) {
+                moved = !((kingside && sq == ChessBoard.square(homeRow, 7)) || (queenside && sq == ChessBoard.square(homeRow, 0)));
+            } else if (p instanceof Pawn) {
+                moved = ChessBoard.row(sq) != pawnRow;
+            } else {
+                moved = false;
+            }
+            if (moved) {
+                p.increaseMoveCount();
+            }
+        }
+    }
+
+    private static int skipSpaces(String s, int i) {
+        while (i < s.length() && s.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
 
     private void placeNewPiece(char column, int row, ChessPiece piece) {
-        board.placePiece(piece, new ChessPosition(column, row).toPosition());
-        piecesOnTheBoard.add(piece);
+        placeNewPiece(piece, new ChessPosition(column, row).toPosition());
+    }
+
+    private void placeNewPiece(ChessPiece piece, Position position) {
+        board.placePiece(piece, position);
+        pieces(piece.getColor()).add(piece);
+        if (piece instanceof King) {
+            kings[piece.getColor().ordinal()] = piece;
+            kingSquares[piece.getColor().ordinal()] = piece.getSquare();
+        }
     }
 
 
@@ -346,7 +984,7 @@ public class ChessMatch {
         placeNewPiece('c', 1, new Bishop(board, Color.WHITE));
         placeNewPiece('b', 1, new Knight(board, Color.WHITE));
         placeNewPiece('d', 1, new Queen(board, Color.WHITE));
-        placeNewPiece('e', 1, new King(board, Color.WHITE, this));
+        placeNewPiece('e', 1, new King(board, Color.WHITE));
         placeNewPiece('f', 1, new Bishop(board, Color.WHITE));
         placeNewPiece('g', 1, new Knight(board, Color.WHITE));
         placeNewPiece('h', 1, new Rook(board, Color.WHITE));
@@ -363,7 +1001,7 @@ public class ChessMatch {
         placeNewPiece('c', 8, new Bishop(board, Color.BLACK));
         placeNewPiece('b', 8, new Knight(board, Color.BLACK));
         placeNewPiece('d', 8, new Queen(board, Color.BLACK));
-        placeNewPiece('e', 8, new King(board, Color.BLACK, this));
+        placeNewPiece('e', 8, new King(board, Color.BLACK));
         placeNewPiece('f', 8, new Bishop(board, Color.BLACK));
         placeNewPiece('g', 8, new Knight(board, Color.BLACK));
         placeNewPiece('h', 8, new Rook(board, Color.BLACK));
@@ -8,6 +8,9 @@ public abstract class ChessPiece extends Piece{
     private Color color;
     private int moveCount;
 
+    //Índice da peça no PieceSet da partida (-1 fora do tabuleiro)
+    int setIndex = -1;
+
 
     public ChessPiece(Board board, Color color) {
         super(board);
@@ -26,11 +29,60 @@ public abstract class ChessPiece extends Piece{
         return moveCount;
     }
 
+    public abstract PieceType getType();
+
+    //Cada peça gera a sua máscara de destinos direto dos bitboards, sem alocar nada
+    @Override
+    public abstract long possibleMovesMask();
+
+    //Matriz mantida apenas para a interface (UI); o motor usa a máscara
+    @Override
+    public boolean[][] possibleMoves() {
+        boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
+        long mask = possibleMovesMask();
+        while (mask != 0) {
+            int sq = Long.numberOfTrailingZeros(mask);
+            mat[ChessBoard.row(sq)][ChessBoard.column(sq)] = true;
+            mask &= mask - 1;
+        }
+
+        return mat;
+    }
+
+    /*
+        Preenche o buffer do chamador com os movimentos codificados (ver Move)
+        a partir de offset e retorna quantos foram escritos.
+    */
+    public int possibleMoves(int[] moves, int offset) {
+        int from = getSquare();
+        long mask = possibleMovesMask();
+        int count = 0;
+        while (mask != 0) {
+            moves[offset + count++] = Move.encode(from, Long.numberOfTrailingZeros(mask));
+            mask &= mask - 1;
+        }
+
+        return count;
+    }
+
     protected boolean isThereOpponentPiece(Position position) {
         ChessPiece p = (ChessPiece)getBoard().piece(position);
         return p != null && p.getColor() != color;
     }
 
+    protected ChessBoard getChessBoard() {
+        return (ChessBoard) getBoard();
+    }
+
+    protected int getSquare() {
+        return ChessBoard.square(position);
+    }
+
+    //Casas livres ou com peça adversária
+    protected long notOwnPieces() {
+        return ~getChessBoard().getOccupancy(color);
+    }
+
     public ChessPosition getChessPosition() {
         return ChessPosition.fromPosition(position);
     }
@@ -42,5 +94,9 @@ public abstract class ChessPiece extends Piece{
     public void decreaseMoveCount() {
         moveCount--;
     }
+
+    void setMoveCount(int moveCount) {
+        this.moveCount = moveCount;
+    }
     
-} 
\ No newline at end of file
+} 
@@ -0,0 +1,9 @@
+package chess;
+
+//Motivo de empate detectado por ChessMatch depois de performChessMove/tryMove
+public enum DrawReason {
+    STALEMATE,
+    THREEFOLD_REPETITION,
+    FIFTY_MOVES,
+    INSUFFICIENT_MATERIAL;
+}
@@ -0,0 +1,51 @@
+package chess;
+
+/*
+    Movimentos codificados em um int, sem alocação:
+    bits 0-5 = casa de origem, bits 6-11 = casa de destino
+    (casas na numeração do ChessBoard, a8 = 0 e h1 = 63),
+    bits 12-14 = peça da promoção (ordinal de PieceType, 0 = sem promoção).
+*/
+public final class Move {
+
+    //Limite de lances legais em uma posição de xadrez (218), arredondado
+    public static final int MAX_MOVES = 256;
+
+    private static final PieceType[] TYPES = PieceType.values();
+
+    private Move() {
+    }
+
+    public static int encode(int from, int to) {
+        return from | (to << 6);
+    }
+
+    public static int encode(int from, int to, PieceType promotion) {
+        return from | (to << 6) | (promotion.ordinal() << 12);
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    //Peça escolhida na promoção, ou null se o lance não for promoção
+    public static PieceType promotion(int move) {
+        int type = (move >>> 12) & 0x7;
+        return (type == 0) ? null : TYPES[type];
+    }
+
+    //Notação de coordenadas (e2e4, e7e8q)
+    public static String toString(int move) {
+        PieceType promotion = promotion(move);
+        String s = squareName(from(move)) + squareName(to(move));
+        return (promotion == null) ? s : s + "pnbrqk".charAt(promotion.ordinal());
+    }
+
+    public static String squareName(int square) {
+        return "" + (char) ('a' + ChessBoard.column(square)) + (8 - ChessBoard.row(square));
+    }
+}
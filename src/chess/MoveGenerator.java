@@ -0,0 +1,209 @@
+package chess;
+
+/*
+    Gerador de lances legais sem jogadas de teste (makeMove/undoMove):
+    calcula as peças que dão check, a máscara de casas que resolvem o check
+    e as peças cravadas no rei antes de gerar os lances de cada peça.
+*/
+final class MoveGenerator {
+    private static final PieceType[] PROMOTIONS = {PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT};
+
+    private MoveGenerator() {
+    }
+
+    /*
+        Escreve em moves os lances legais da cor e retorna quantos são.
+        enPassantVulnerable é o peão adversário que acabou de avançar duas casas (ou null).
+    */
+    static int generate(ChessBoard board, Color us, int kingSquare, ChessPiece enPassantVulnerable, int[] moves) {
+        return generate(board, us, kingSquare, enPassantVulnerable, moves, false);
+    }
+
+    //capturesOnly: só capturas (inclusive en passant) e promoções, sem roque
+    static int generate(ChessBoard board, Color us, int kingSquare, ChessPiece enPassantVulnerable, int[] moves,
+            boolean capturesOnly) {
+        Color them = (us == Color.WHITE) ? Color.BLACK : Color.WHITE;
+        long own = board.getOccupancy(us);
+        long enemy = board.getOccupancy(them);
+        long occupancy = board.getOccupancy();
+        int count = 0;
+
+        //Rei: destino não pode ser atacado com o rei fora da casa atual (senão ele "bloqueia" o próprio raio)
+        long kingTargets = Attacks.king(kingSquare) & (capturesOnly ? enemy : ~own);
+        long withoutKing = occupancy ^ (1L << kingSquare);
+        while (kingTargets != 0) {
+            int to = Long.numberOfTrailingZeros(kingTargets);
+            kingTargets &= kingTargets - 1;
+            if (!board.isSquareAttacked(to, them, withoutKing)) {
+                moves[count++] = Move.encode(kingSquare, to);
+            }
+        }
+
+        long checkers = board.attackersTo(kingSquare, occupancy) & enemy;
+        if (Long.bitCount(checkers) > 1) {
+            //Check duplo: só o rei pode mexer
+            return count;
+        }
+
+        long checkMask = -1L;
+        if (checkers != 0) {
+            checkMask = checkers | Attacks.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+        }
+
+        long pinned = pinnedPieces(board, us, them, kingSquare, own, occupancy);
+        long targets = (capturesOnly ? enemy : ~own) & checkMask;
+
+        count = addPieceMoves(board, us, PieceType.KNIGHT, kingSquare, pinned, targets, occupancy, moves, count);
+        count = addPieceMoves(board, us, PieceType.BISHOP, kingSquare, pinned, targets, occupancy, moves, count);
+        count = addPieceMoves(board, us, PieceType.ROOK, kingSquare, pinned, targets, occupancy, moves, count);
+        count = addPieceMoves(board, us, PieceType.QUEEN, kingSquare, pinned, targets, occupancy, moves, count);
+        count = addPawnMoves(board, us, kingSquare, pinned, checkMask, enemy, occupancy, capturesOnly, moves, count);
+        count = addEnPassant(board, us, them, kingSquare, enPassantVulnerable, occupancy, moves, count);
+
+        //Roque: a peça King já confere rei fora de check, caminho livre e a casa atravessada;
+        //falta a casa de destino do rei
+        if (checkers == 0 && !capturesOnly) {
+            ChessPiece king = board.piece(kingSquare);
+            long castling = king.possibleMovesMask() & ~Attacks.king(kingSquare);
+            while (castling != 0) {
+                int to = Long.numberOfTrailingZeros(castling);
+                castling &= castling - 1;
+                if (!board.isSquareAttacked(to, them)) {
+                    moves[count++] = Move.encode(kingSquare, to);
+                }
+            }
+        }
+
+        return count;
+    }
+
+    //Peças próprias que são a única peça entre o rei e uma torre/bispo/dama adversária
+    private static long pinnedPieces(ChessBoard board, Color us, Color them, int kingSquare, long own, long occupancy) {
+        long queens = board.getPieces(them, PieceType.QUEEN);
+        long snipers = (Attacks.rook(kingSquare, 0L) & (board.getPieces(them, PieceType.ROOK) | queens))
+            | (Attacks.bishop(kingSquare, 0L) & (board.getPieces(them, PieceType.BISHOP) | queens));
+        long pinned = 0L;
+        while (snipers != 0) {
+            int sq = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = Attacks.between(kingSquare, sq) & occupancy;
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & own;
+            }
+        }
+
+        return pinned;
+    }
+
+    private static int addPieceMoves(ChessBoard board, Color us, PieceType type, int kingSquare, long pinned,
+            long targets, long occupancy, int[] moves, int count) {
+        long pieces = board.getPieces(us, type);
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+
+            long mask;
+            if (type == PieceType.KNIGHT) {
+                mask = Attacks.knight(from);
+            } else if (type == PieceType.BISHOP) {
+                mask = Attacks.bishop(from, occupancy);
+            } else if (type == PieceType.ROOK) {
+                mask = Attacks.rook(from, occupancy);
+            } else {
+                mask = Attacks.queen(from, occupancy);
+            }
+            mask &= targets;
+
+            //Peça cravada só anda sobre a linha do rei (cavalo cravado nunca anda)
+            if ((pinned & (1L << from)) != 0) {
+                mask &= Attacks.line(kingSquare, from);
+            }
+
+            while (mask != 0) {
+                moves[count++] = Move.encode(from, Long.numberOfTrailingZeros(mask));
+                mask &= mask - 1;
+            }
+        }
+
+        return count;
+    }
+
+    //Com capturesOnly, avanços só entram quando são promoção
+    private static int addPawnMoves(ChessBoard board, Color us, int kingSquare, long pinned, long checkMask,
+            long enemy, long occupancy, boolean capturesOnly, int[] moves, int count) {
+        long pawns = board.getPieces(us, PieceType.PAWN);
+        int forward = (us == Color.WHITE) ? -8 : 8;
+        int startRow = (us == Color.WHITE) ? 6 : 1;
+        int lastRow = (us == Color.WHITE) ? 0 : 7;
+        long pushTargets = capturesOnly ? 0xFFL << (lastRow * 8) : -1L;
+
+        while (pawns != 0) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+
+            long mask = 0L;
+            long one = 1L << (from + forward);
+            if ((occupancy & one) == 0) {
+                mask |= one;
+                long two = 1L << (from + 2 * forward);
+                if (ChessBoard.row(from) == startRow && (occupancy & two) == 0) {
+                    mask |= two;
+                }
+            }
+            mask &= pushTargets;
+            mask |= Attacks.pawn(us, from) & enemy;
+            mask &= checkMask;
+
+            if ((pinned & (1L << from)) != 0) {
+                mask &= Attacks.line(kingSquare, from);
+            }
+
+            while (mask != 0) {
+                int to = Long.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+                if (ChessBoard.row(to) == lastRow) {
+                    for (PieceType promotion : PROMOTIONS) {
+                        moves[count++] = Move.encode(from, to, promotion);
+                    }
+                } else {
+                    moves[count++] = Move.encode(from, to);
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /*
+        En passant remove duas peças da mesma fileira de uma vez, então o teste
+        de cravada comum não basta: refaz os ataques ao rei com a ocupação final.
+    */
+    private static int addEnPassant(ChessBoard board, Color us, Color them, int kingSquare, ChessPiece enPassantVulnerable,
+            long occupancy, int[] moves, int count) {
+        if (enPassantVulnerable == null || enPassantVulnerable.getColor() != them) {
+            return count;
+        }
+
+        int captured = enPassantVulnerable.getSquare();
+        int to = captured + ((us == Color.WHITE) ? -8 : 8);
+        long capturedBit = 1L << captured;
+        long attackers = Attacks.pawn(them, to) & board.getPieces(us, PieceType.PAWN);
+        long queens = board.getPieces(them, PieceType.QUEEN);
+
+        while (attackers != 0) {
+            int from = Long.numberOfTrailingZeros(attackers);
+            attackers &= attackers - 1;
+
+            long after = (occupancy ^ (1L << from) ^ capturedBit) | (1L << to);
+            long checks = (Attacks.rook(kingSquare, after) & (board.getPieces(them, PieceType.ROOK) | queens))
+                | (Attacks.bishop(kingSquare, after) & (board.getPieces(them, PieceType.BISHOP) | queens))
+                | (Attacks.knight(kingSquare) & board.getPieces(them, PieceType.KNIGHT))
+                | (Attacks.pawn(us, kingSquare) & board.getPieces(them, PieceType.PAWN) & ~capturedBit);
+            if (checks == 0) {
+                moves[count++] = Move.encode(from, to);
+            }
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,23 @@
+package chess;
+
+//Resultado de ChessMatch.tryMove; a mensagem é a mesma da ChessException de performChessMove
+public enum MoveResult {
+    OK(null),
+    GAME_OVER("The match is over"),
+    INVALID_SQUARE("Invalid square"),
+    NO_PIECE("There is no piece on source position"),
+    NOT_YOUR_PIECE("The chosen piece is not yours"),
+    NO_POSSIBLE_MOVES("There is no possible for the chosen piece"),
+    ILLEGAL_TARGET("The chosen piece can't move to the target position"),
+    SELF_CHECK("You can't put yourself in check");
+
+    private final String message;
+
+    MoveResult(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,20 @@
+package chess;
+
+import boardgame.Piece;
+
+//Estado de antes de um lance, guardado por ChessMatch.doMove para que undoMove possa restaurá-lo
+class MoveState {
+    int move;
+    Piece capturedPiece;
+    ChessPiece promotedPawn;
+    int turn;
+    Color currentPlayer;
+    boolean check;
+    boolean checkMate;
+    DrawReason drawReason;
+    ChessPiece promoted;
+    ChessPiece enPassantVulnerable;
+    int enPassantColumn;
+    int castlingRights;
+    int halfmoveClock;
+}
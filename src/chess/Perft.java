@@ -0,0 +1,105 @@
+package chess;
+
+/*
+    Perft: conta as folhas da árvore de lances legais até uma profundidade,
+    usando doMove/undoMove da partida. Serve para conferir roque, en passant
+    e promoção contra contagens conhecidas e para medir lances por segundo.
+
+    Uso: java chess.Perft [profundidade máxima]
+*/
+public final class Perft {
+
+    //FEN e contagens de referência (profundidade 1, 2, ...) das posições padrão
+    private static final String[] FENS = {
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+        "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+    };
+    private static final String[] NAMES = {
+        "start", "kiwipete", "position 3", "position 4", "position 5",
+    };
+    private static final long[][] NODES = {
+        {20, 400, 8902, 197281, 4865609},
+        {48, 2039, 97862, 4085603},
+        {14, 191, 2812, 43238, 674624, 11030083},
+        {6, 264, 9467, 422333},
+        {44, 1486, 62379, 2103487},
+    };
+
+    private Perft() {
+    }
+
+    public static long perft(ChessMatch match, int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Negative perft depth: " + depth);
+        }
+        if (depth == 0) {
+            return 1;
+        }
+        return perft(match, depth, new int[depth + 1][Move.MAX_MOVES]);
+    }
+
+    //Um buffer de lances por nível, para não alocar durante a busca
+    private static long perft(ChessMatch match, int depth, int[][] buffers) {
+        int[] moves = buffers[depth];
+        int count = match.generateLegalMoves(moves);
+        if (depth == 1) {
+            return count;
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            match.doMove(moves[i]);
+            nodes += perft(match, depth - 1, buffers);
+            match.undoMove();
+        }
+
+        return nodes;
+    }
+
+    //Depois do mate a vez não passa, mas a FEN e o hash devem ser os da posição com o lado mateado a jogar
+    private static boolean mateRoundTrip() {
+        ChessMatch match = new ChessMatch();
+        match.performChessMove(new ChessPosition('f', 2), new ChessPosition('f', 3));
+        match.performChessMove(new ChessPosition('e', 7), new ChessPosition('e', 5));
+        match.performChessMove(new ChessPosition('g', 2), new ChessPosition('g', 4));
+        match.performChessMove(new ChessPosition('d', 8), new ChessPosition('h', 4));
+
+        String fen = match.toFen();
+        ChessMatch copy = new ChessMatch(fen);
+        boolean pass = match.getCheckMate() && fen.equals(copy.toFen()) && match.getHash() == copy.getHash()
+            && copy.generateLegalMoves().length == 0;
+        System.out.printf("%-11s FEN round-trip: %s %s%n", "fool's mate", pass ? "OK  " : "FAIL", fen);
+        return pass;
+    }
+
+    public static void main(String[] args) {
+        int maxDepth = (args.length > 0) ? Integer.parseInt(args[0]) : 4;
+        boolean ok = true;
+
+        for (int i = 0; i < FENS.length; i++) {
+            for (int depth = 1; depth <= Math.min(maxDepth, NODES[i].length); depth++) {
+                ChessMatch match = new ChessMatch(FENS[i]);
+                long start = System.nanoTime();
+                long nodes = perft(match, depth);
+                long elapsed = Math.max(1, System.nanoTime() - start);
+                long expected = NODES[i][depth - 1];
+                boolean pass = nodes == expected;
+                ok &= pass;
+
+                System.out.printf("%-11s depth %d: %,12d nodes %s (expected %,d) %,.0f nodes/s%n",
+                    NAMES[i], depth, nodes, pass ? "OK  " : "FAIL", expected, nodes * 1e9 / elapsed);
+            }
+        }
+
+        ok &= mateRoundTrip();
+
+        if (!ok) {
+            System.out.println("Perft FAILED");
+            System.exit(1);
+        }
+        System.out.println("Perft OK");
+    }
+}
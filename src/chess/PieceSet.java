@@ -0,0 +1,38 @@
+package chess;
+
+/*
+    Conjunto de peças de uma cor com inclusão e remoção O(1):
+    cada peça guarda o próprio índice no array, e a remoção
+    troca a peça removida pela última.
+*/
+class PieceSet {
+    private ChessPiece[] pieces = new ChessPiece[16];
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public ChessPiece get(int index) {
+        return pieces[index];
+    }
+
+    public void add(ChessPiece piece) {
+        if (size == pieces.length) {
+            ChessPiece[] aux = new ChessPiece[size * 2];
+            System.arraycopy(pieces, 0, aux, 0, size);
+            pieces = aux;
+        }
+        piece.setIndex = size;
+        pieces[size++] = piece;
+    }
+
+    public void remove(ChessPiece piece) {
+        int index = piece.setIndex;
+        ChessPiece last = pieces[--size];
+        pieces[index] = last;
+        last.setIndex = index;
+        pieces[size] = null;
+        piece.setIndex = -1;
+    }
+}
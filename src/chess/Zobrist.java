@@ -0,0 +1,45 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/*
+    Chaves aleatórias (semente fixa) para o hash Zobrist das posições:
+    uma por peça/cor/casa, uma para o lado a jogar, uma por combinação
+    de direitos de roque e uma por coluna de en passant.
+*/
+final class Zobrist {
+    private static final long[] PIECES = new long[12 * 64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT = new long[8];
+    static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EEDC0FFEEL);
+        for (int i = 0; i < PIECES.length; i++) {
+            PIECES[i] = random.nextLong();
+        }
+        //Sem direitos de roque a chave é zero, para não alterar o hash
+        for (int i = 1; i < CASTLING.length; i++) {
+            CASTLING[i] = random.nextLong();
+        }
+        for (int i = 0; i < EN_PASSANT.length; i++) {
+            EN_PASSANT[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    static long piece(Color color, PieceType type, int square) {
+        return PIECES[((color.ordinal() * 6 + type.ordinal()) << 6) | square];
+    }
+
+    static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    static long enPassant(int column) {
+        return EN_PASSANT[column];
+    }
+}
@@ -0,0 +1,144 @@
+package chess.archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import chess.ChessException;
+import chess.pgn.PgnImporter;
+
+/*
+    Arquivo de partidas: registros do GameCodec um atrás do outro, cada um
+    precedido do tamanho (2 bytes). A posição do registro no arquivo é o id
+    da partida, então não há índice separado para manter.
+*/
+public final class GameArchive {
+
+    private GameArchive() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: java chess.archive.GameArchive <in.pgn> <out.cga> [threads]");
+            System.exit(2);
+        }
+        int threads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        long[] written = new long[2];
+        try (Writer writer = new Writer(Paths.get(args[1]))) {
+            long games = new PgnImporter(threads).importFile(Paths.get(args[0]), r -> {
+                if (!r.isValid()) {
+                    return;
+                }
+                byte[] record = GameCodec.encode(r.getTag("FEN"), r.getMoves(), r.getMoves().length);
+                synchronized (writer) {
+                    try {
+                        writer.append(record);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    written[0]++;
+                    written[1] += record.length + 2;
+                }
+            });
+            System.out.printf("%,d of %,d games archived, %,d bytes (%.1f bytes/game)%n",
+                written[0], games, written[1], (double) written[1] / Math.max(1, written[0]));
+        }
+    }
+
+    //Acrescenta partidas ao fim do arquivo
+    public static class Writer implements AutoCloseable {
+        //Maior registro que o prefixo de 2 bytes consegue indicar
+        private static final int MAX_RECORD = 0xFFFF;
+
+        private FileChannel channel;
+        //Cabe sempre um registro do tamanho máximo com o prefixo
+        private ByteBuffer buffer = ByteBuffer.allocate(2 + MAX_RECORD);
+
+        public Writer(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        }
+
+        //Retorna o id (posição no arquivo) da partida gravada
+        public long append(byte[] record) throws IOException {
+            if (record.length > MAX_RECORD) {
+                throw new IllegalArgumentException("Game record too large");
+            }
+            if (buffer.remaining() < record.length + 2) {
+                flush();
+            }
+            long id = channel.size() + buffer.position();
+            buffer.putShort((short) record.length).put(record);
+            return id;
+        }
+
+        public void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            channel.close();
+        }
+    }
+
+    //Lê os registros em sequência a partir de uma janela mapeada do arquivo
+    public static class Reader implements AutoCloseable {
+        private FileChannel channel;
+        private MappedByteBuffer data;
+
+        public Reader(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Game archive larger than 2 GB; split it");
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        public boolean hasNext() {
+            return data.hasRemaining();
+        }
+
+        //Id da próxima partida (para guardar antes de chamar next)
+        public long position() {
+            return data.position();
+        }
+
+        public byte[] next() {
+            if (data.remaining() < 2) {
+                throw new ChessException("Truncated game archive");
+            }
+            byte[] record = new byte[data.getShort() & 0xFFFF];
+            if (data.remaining() < record.length) {
+                throw new ChessException("Truncated game archive");
+            }
+            data.get(record);
+            return record;
+        }
+
+        //Registro de uma partida pelo id
+        public byte[] get(long id) {
+            int position = (int) id;
+            byte[] record = new byte[data.getShort(position) & 0xFFFF];
+            data.get(position + 2, record);
+            return record;
+        }
+
+        @Override
+        public void close() throws IOException {
+            data = null;
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package chess.archive;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.Move;
+
+/*
+    Formato binário compacto de uma partida:
+
+        "CG" (2 bytes) | versão (1) | flags (1) | número de meios-lances (2)
+        [se flags & FEN: tamanho (1) + FEN em ASCII]
+        um código de 16 bits por meio-lance
+
+    O código é o próprio int de chess.Move (origem 6 bits, destino 6 bits,
+    promoção 3 bits), que cabe em 15 bits. Não depende da ordem do gerador de
+    lances, então arquivos antigos continuam válidos se o gerador mudar.
+    Uma partida de 80 meios-lances ocupa 166 bytes.
+*/
+public final class GameCodec {
+    private static final byte MAGIC_0 = 'C';
+    private static final byte MAGIC_1 = 'G';
+    private static final byte VERSION = 1;
+    private static final int FLAG_FEN = 1;
+    private static final int HEADER_BYTES = 6;
+    private static final int MAX_PLIES = 0xFFFF;
+
+    private GameCodec() {
+    }
+
+    //Partida a partir da posição inicial
+    public static byte[] encode(int[] moves, int count) {
+        return encode(null, moves, count);
+    }
+
+    //startFen = null para a posição inicial
+    public static byte[] encode(String startFen, int[] moves, int count) {
+        if (count > MAX_PLIES) {
+            throw new IllegalArgumentException("Game too long: " + count + " plies");
+        }
+        byte[] fen = (startFen == null) ? null : startFen.getBytes(StandardCharsets.US_ASCII);
+        if (fen != null && fen.length > 255) {
+            throw new IllegalArgumentException("FEN too long");
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(encodedSize(fen, count));
+        out.put(MAGIC_0).put(MAGIC_1).put(VERSION).put((byte) ((fen == null) ? 0 : FLAG_FEN));
+        out.putShort((short) count);
+        if (fen != null) {
+            out.put((byte) fen.length).put(fen);
+        }
+        for (int i = 0; i < count; i++) {
+            out.putShort((short) moves[i]);
+        }
+        return out.array();
+    }
+
+    public static int plies(byte[] data) {
+        checkHeader(data);
+        return ((data[4] & 0xFF) << 8) | (data[5] & 0xFF);
+    }
+
+    //FEN inicial gravada, ou null se a partida começa da posição inicial
+    public static String startFen(byte[] data) {
+        checkHeader(data);
+        if ((data[3] & FLAG_FEN) == 0) {
+            return null;
+        }
+        return new String(data, HEADER_BYTES + 1, data[HEADER_BYTES] & 0xFF, StandardCharsets.US_ASCII);
+    }
+
+    //Lances codificados como em chess.Move, sem reproduzi-los
+    public static int[] moves(byte[] data) {
+        int count = plies(data);
+        int offset = movesOffset(data);
+        if (data.length < offset + 2 * count) {
+            throw new ChessException("Truncated game record");
+        }
+        int[] moves = new int[count];
+        for (int i = 0; i < count; i++) {
+            moves[i] = ((data[offset + 2 * i] & 0xFF) << 8) | (data[offset + 2 * i + 1] & 0xFF);
+        }
+        return moves;
+    }
+
+    /*
+        Reproduz a partida em uma ChessMatch nova, conferindo cada lance contra
+        os lances legais da posição. Lança ChessException se algum não for legal.
+    */
+    public static ChessMatch decode(byte[] data) {
+        String fen = startFen(data);
+        ChessMatch match = (fen == null) ? new ChessMatch() : new ChessMatch(fen);
+        int[] moves = moves(data);
+        int[] legal = new int[Move.MAX_MOVES];
+
+        for (int ply = 0; ply < moves.length; ply++) {
+            int count = match.generateLegalMoves(legal);
+            boolean found = false;
+            for (int i = 0; i < count && !found; i++) {
+                found = legal[i] == moves[ply];
+            }
+            if (!found) {
+                throw new ChessException("Illegal move " + Move.toString(moves[ply]) + " at ply " + (ply + 1));
+            }
+            match.doMove(moves[ply]);
+        }
+
+        return match;
+    }
+
+    private static int encodedSize(byte[] fen, int count) {
+        return HEADER_BYTES + ((fen == null) ? 0 : 1 + fen.length) + 2 * count;
+    }
+
+    private static int movesOffset(byte[] data) {
+        return ((data[3] & FLAG_FEN) == 0) ? HEADER_BYTES : HEADER_BYTES + 1 + (data[HEADER_BYTES] & 0xFF);
+    }
+
+    private static void checkHeader(byte[] data) {
+        if (data.length < HEADER_BYTES || data[0] != MAGIC_0 || data[1] != MAGIC_1) {
+            throw new ChessException("Not a game record");
+        }
+        if (data[2] != VERSION) {
+            throw new ChessException("Unsupported game record version: " + data[2]);
+        }
+    }
+}
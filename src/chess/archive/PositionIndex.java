@@ -0,0 +1,149 @@
+package chess.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import chess.ChessException;
+import chess.ChessMatch;
+
+/*
+    Índice "quais partidas chegaram a esta posição", lido direto do disco:
+
+        "PIDX" | versão (4 bytes) | número de entradas (8)
+        entradas de 16 bytes ordenadas pelo hash (sem sinal):
+        hash Zobrist (8) | id da partida << 16 | meio-lance (8)
+
+    O arquivo é mapeado em segmentos de 1 GB (FileChannel.map) e a consulta é
+    uma busca binária sobre eles, sem desserializar nada; quem faz o cache é o
+    page cache do sistema. Gerado por PositionIndexBuilder.
+
+    Uso: java chess.archive.PositionIndex indice.idx "<FEN>"
+*/
+public class PositionIndex implements AutoCloseable {
+    static final int MAGIC = 0x50494458;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int ENTRY_BYTES = 16;
+    private static final int SEGMENT_SHIFT = 26;
+    private static final long SEGMENT_ENTRIES = 1L << SEGMENT_SHIFT;
+
+    private FileChannel channel;
+    private MappedByteBuffer[] segments;
+    private long size;
+
+    public PositionIndex(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+        }
+        header.flip();
+        if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+            throw new ChessException("Not a position index: " + path);
+        }
+        if (header.getInt() != VERSION) {
+            throw new ChessException("Unsupported position index version");
+        }
+        size = header.getLong();
+        if (channel.size() < HEADER_BYTES + size * ENTRY_BYTES) {
+            throw new ChessException("Truncated position index: " + path);
+        }
+
+        segments = new MappedByteBuffer[(int) ((size + SEGMENT_ENTRIES - 1) >>> SEGMENT_SHIFT)];
+        for (int i = 0; i < segments.length; i++) {
+            long first = (long) i << SEGMENT_SHIFT;
+            long entries = Math.min(SEGMENT_ENTRIES, size - first);
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + first * ENTRY_BYTES,
+                entries * ENTRY_BYTES);
+        }
+    }
+
+    //Número de posições indexadas (com repetição)
+    public long size() {
+        return size;
+    }
+
+    public long count(long hash) {
+        return bound(hash, true) - bound(hash, false);
+    }
+
+    public long count(ChessMatch match) {
+        return count(match.getHash());
+    }
+
+    /*
+        Escreve em games/plies as partidas (ids do GameArchive) e os meios-lances
+        em que a posição apareceu, até o tamanho dos arrays. Retorna quantas escreveu.
+    */
+    public int find(long hash, long[] games, int[] plies) {
+        long i = bound(hash, false);
+        int n = 0;
+        while (n < games.length && i < size && key(i) == hash) {
+            long value = value(i);
+            games[n] = value >>> 16;
+            plies[n] = (int) (value & 0xFFFF);
+            n++;
+            i++;
+        }
+        return n;
+    }
+
+    public int find(ChessMatch match, long[] games, int[] plies) {
+        return find(match.getHash(), games, plies);
+    }
+
+    //Primeira entrada com chave >= hash (upper: chave > hash)
+    private long bound(long hash, boolean upper) {
+        long low = 0;
+        long high = size;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            int cmp = Long.compareUnsigned(key(mid), hash);
+            if (cmp < 0 || (upper && cmp == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long key(long entry) {
+        return segments[(int) (entry >>> SEGMENT_SHIFT)].getLong((int) (entry & (SEGMENT_ENTRIES - 1)) * ENTRY_BYTES);
+    }
+
+    private long value(long entry) {
+        return segments[(int) (entry >>> SEGMENT_SHIFT)].getLong((int) (entry & (SEGMENT_ENTRIES - 1)) * ENTRY_BYTES + 8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        segments = null;
+        channel.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java chess.archive.PositionIndex <index.idx> <FEN>");
+            System.exit(2);
+        }
+        try (PositionIndex index = new PositionIndex(Paths.get(args[0]))) {
+            ChessMatch match = new ChessMatch(args[1]);
+            long[] games = new long[20];
+            int[] plies = new int[20];
+            long start = System.nanoTime();
+            long total = index.count(match);
+            int n = index.find(match, games, plies);
+            long micros = (System.nanoTime() - start) / 1000;
+
+            System.out.printf("%,d games reached this position (%d us)%n", total, micros);
+            for (int i = 0; i < n; i++) {
+                System.out.println("  game " + games[i] + ", ply " + plies[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package chess.archive;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.Move;
+
+/*
+    Gera o arquivo do PositionIndex a partir de partidas. As entradas são
+    acumuladas em blocos na memória; cada bloco cheio é ordenado (radix sort
+    pelo hash) e gravado em um arquivo temporário, e no fim os blocos são
+    intercalados no índice. Assim a memória fica fixa mesmo com centenas de
+    milhões de posições.
+
+    Uso: java chess.archive.PositionIndexBuilder partidas.cga indice.idx
+*/
+public class PositionIndexBuilder implements AutoCloseable {
+    public static final int DEFAULT_RUN_ENTRIES = 1 << 22;
+
+    private Path output;
+    private long[] keys;
+    private long[] values;
+    private long[] auxKeys;
+    private long[] auxValues;
+    private int size;
+    private List<Path> runs = new ArrayList<>();
+    private int[] legal = new int[Move.MAX_MOVES];
+    private long[] gameHashes = new long[512];
+
+    public PositionIndexBuilder(Path output) {
+        this(output, DEFAULT_RUN_ENTRIES);
+    }
+
+    public PositionIndexBuilder(Path output, int runEntries) {
+        this.output = output;
+        keys = new long[runEntries];
+        values = new long[runEntries];
+        auxKeys = new long[runEntries];
+        auxValues = new long[runEntries];
+    }
+
+    public void add(long hash, long gameId, int ply) throws IOException {
+        if (size == keys.length) {
+            writeRun();
+        }
+        keys[size] = hash;
+        values[size] = (gameId << 16) | (ply & 0xFFFF);
+        size++;
+    }
+
+    /*
+        Indexa todas as posições de uma partida do GameArchive, da inicial (ply 0)
+        à final. A partida é conferida inteira antes de entrar no índice: com um
+        lance ilegal lança ChessException (como GameCodec.decode) e nada é indexado.
+    */
+    public void addGame(long gameId, byte[] record) throws IOException {
+        String fen = GameCodec.startFen(record);
+        ChessMatch match = (fen == null) ? new ChessMatch() : new ChessMatch(fen);
+        int[] moves = GameCodec.moves(record);
+        if (gameHashes.length <= moves.length) {
+            gameHashes = new long[moves.length + 1];
+        }
+
+        gameHashes[0] = match.getHash();
+        for (int ply = 0; ply < moves.length; ply++) {
+            if (!isLegal(match, moves[ply])) {
+                throw new ChessException("Illegal move " + Move.toString(moves[ply]) + " at ply " + (ply + 1));
+            }
+            match.doMove(moves[ply]);
+            gameHashes[ply + 1] = match.getHash();
+        }
+
+        for (int ply = 0; ply <= moves.length; ply++) {
+            add(gameHashes[ply], gameId, ply);
+        }
+    }
+
+    //Grava o índice e apaga os temporários
+    @Override
+    public void close() throws IOException {
+        try {
+            if (size > 0 || runs.isEmpty()) {
+                writeRun();
+            }
+            merge();
+        } finally {
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    private boolean isLegal(ChessMatch match, int move) {
+        int count = match.generateLegalMoves(legal);
+        for (int i = 0; i < count; i++) {
+            if (legal[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeRun() throws IOException {
+        sort();
+        Path run = Files.createTempFile(output.toAbsolutePath().getParent(), "position-run", ".tmp");
+        runs.add(run);
+        try (FileChannel channel = FileChannel.open(run, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+            for (int i = 0; i < size; i++) {
+                if (!buffer.hasRemaining()) {
+                    drain(channel, buffer);
+                }
+                buffer.putLong(keys[i]).putLong(values[i]);
+            }
+            drain(channel, buffer);
+        }
+        size = 0;
+    }
+
+    //Radix sort LSD em 4 passadas de 16 bits: ordem sem sinal, estável, O(n)
+    private void sort() {
+        int[] counts = new int[1 << 16];
+        for (int shift = 0; shift < 64; shift += 16) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < size; i++) {
+                counts[(int) (keys[i] >>> shift) & 0xFFFF]++;
+            }
+            int sum = 0;
+            for (int d = 0; d < counts.length; d++) {
+                int c = counts[d];
+                counts[d] = sum;
+                sum += c;
+            }
+            for (int i = 0; i < size; i++) {
+                int d = (int) (keys[i] >>> shift) & 0xFFFF;
+                int to = counts[d]++;
+                auxKeys[to] = keys[i];
+                auxValues[to] = values[i];
+            }
+            long[] k = keys;
+            keys = auxKeys;
+            auxKeys = k;
+            long[] v = values;
+            values = auxValues;
+            auxValues = v;
+        }
+    }
+
+    private void merge() throws IOException {
+        PriorityQueue<Run> queue = new PriorityQueue<>((a, b) -> Long.compareUnsigned(a.key, b.key));
+        List<Run> open = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Path path : runs) {
+                Run run = new Run(Files.newInputStream(path));
+                open.add(run);
+                if (run.advance()) {
+                    queue.add(run);
+                }
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+            buffer.putInt(PositionIndex.MAGIC).putInt(PositionIndex.VERSION).putLong(0);
+            long count = 0;
+            while (!queue.isEmpty()) {
+                Run run = queue.poll();
+                if (!buffer.hasRemaining()) {
+                    drain(channel, buffer);
+                }
+                buffer.putLong(run.key).putLong(run.value);
+                count++;
+                if (run.advance()) {
+                    queue.add(run);
+                }
+            }
+            drain(channel, buffer);
+
+            //Número de entradas no cabeçalho, agora que é conhecido
+            buffer.putLong(count).flip();
+            channel.write(buffer, 8);
+        } finally {
+            for (Run run : open) {
+                run.in.close();
+            }
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    //Bloco ordenado sendo lido durante a intercalação
+    private static class Run {
+        DataInputStream in;
+        long key;
+        long value;
+
+        Run(InputStream in) {
+            this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        }
+
+        boolean advance() throws IOException {
+            try {
+                key = in.readLong();
+                value = in.readLong();
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java chess.archive.PositionIndexBuilder <games.cga> <index.idx>");
+            System.exit(2);
+        }
+
+        long start = System.nanoTime();
+        long games = 0;
+        long skipped = 0;
+        try (GameArchive.Reader archive = new GameArchive.Reader(Paths.get(args[0]));
+                PositionIndexBuilder builder = new PositionIndexBuilder(Paths.get(args[1]))) {
+            while (archive.hasNext()) {
+                long id = archive.position();
+                try {
+                    builder.addGame(id, archive.next());
+                    games++;
+                } catch (ChessException e) {
+                    skipped++;
+                    System.err.println("Game " + id + " skipped: " + e.getMessage());
+                }
+            }
+        }
+
+        System.out.printf("%,d games indexed, %,d skipped in %.2fs%n", games, skipped, (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,19 @@
+package chess.engine;
+
+import chess.ChessMatch;
+import chess.Color;
+
+/*
+    Avaliação estática em centipeões, do ponto de vista do jogador da vez.
+    Material e tabelas peça-casa já vêm somados pelo tabuleiro a cada lance,
+    então avaliar uma folha da busca é O(1).
+*/
+public final class Evaluator {
+    private Evaluator() {
+    }
+
+    public static int evaluate(ChessMatch match) {
+        int score = match.getBoard().getPositionalScore();
+        return (match.getCurrentPlayer() == Color.WHITE) ? score : -score;
+    }
+}
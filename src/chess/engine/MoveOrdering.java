@@ -0,0 +1,99 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessPiece;
+import chess.Color;
+import chess.Move;
+import chess.PieceType;
+
+/*
+    Notas para ordenar os lances antes da busca, da maior para a menor:
+    lance da tabela, capturas e promoções (MVV-LVA: vítima mais valiosa,
+    atacante menos valioso), killers do ply (lances quietos que já cortaram
+    irmãos) e, por fim, o histórico [cor][origem][destino] dos lances quietos.
+
+    Uma instância por Search; não é thread-safe.
+*/
+public class MoveOrdering {
+    static final int HASH_MOVE = 1 << 30;
+    private static final int CAPTURE = 1 << 24;
+    private static final int KILLER = 1 << 22;
+    //Histórico fica sempre abaixo dos killers
+    private static final int MAX_HISTORY = KILLER - 1;
+
+    private int[][] killers = new int[Search.MAX_PLY][2];
+    private int[] history = new int[2 * 64 * 64];
+
+    //Chamado no começo de cada busca: killers são da posição anterior, histórico só envelhece
+    public void newSearch() {
+        for (int[] k : killers) {
+            k[0] = 0;
+            k[1] = 0;
+        }
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 1;
+        }
+    }
+
+    public int score(ChessBoard board, int move, int hashMove, int ply) {
+        if (move == hashMove) {
+            return HASH_MOVE;
+        }
+
+        ChessPiece attacker = board.piece(Move.from(move));
+        PieceType victim = capturedType(board, move);
+        PieceType promotion = Move.promotion(move);
+        if (victim != null || promotion != null) {
+            int score = CAPTURE;
+            if (victim != null) {
+                score += (victim.ordinal() + 1) * 16 - attacker.getType().ordinal();
+            }
+            if (promotion != null) {
+                score += promotion.ordinal() * 16;
+            }
+            return score;
+        }
+
+        if (move == killers[ply][0]) {
+            return KILLER + 1;
+        }
+        if (move == killers[ply][1]) {
+            return KILLER;
+        }
+        return history[historyIndex(attacker.getColor(), move)];
+    }
+
+    public boolean isQuiet(ChessBoard board, int move) {
+        return Move.promotion(move) == null && capturedType(board, move) == null;
+    }
+
+    //Lance quieto que causou corte beta
+    public void cutoff(Color color, int move, int depth, int ply) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+
+        int index = historyIndex(color, move);
+        history[index] = Math.min(history[index] + depth * depth, MAX_HISTORY);
+    }
+
+    //Tipo da peça capturada, ou null; en passant é o peão andando na diagonal para uma casa vazia
+    static PieceType capturedType(ChessBoard board, int move) {
+        int to = Move.to(move);
+        ChessPiece target = board.piece(to);
+        if (target != null) {
+            return target.getType();
+        }
+
+        int from = Move.from(move);
+        if (board.piece(from).getType() == PieceType.PAWN && ChessBoard.column(from) != ChessBoard.column(to)) {
+            return PieceType.PAWN;
+        }
+        return null;
+    }
+
+    private static int historyIndex(Color color, int move) {
+        return (color.ordinal() << 12) | (move & 0xFFF);
+    }
+}
@@ -0,0 +1,55 @@
+package chess.engine;
+
+import chess.ChessBoard;
+
+/*
+    Entrega os lances de uma lista em ordem de nota, um por vez
+    (seleção incremental): cada next() procura o maior restante e o troca
+    para a frente. Se a busca cortar no segundo lance, o resto nunca é ordenado.
+    Reaproveitado a cada nó; as notas ficam em um array pré-alocado.
+*/
+public class MovePicker {
+    private int[] moves;
+    private int[] scores;
+    private int count;
+    private int index;
+
+    public MovePicker(int capacity) {
+        scores = new int[capacity];
+    }
+
+    public void init(int[] moves, int count, ChessBoard board, MoveOrdering ordering, int hashMove, int ply) {
+        this.moves = moves;
+        this.count = count;
+        index = 0;
+        for (int i = 0; i < count; i++) {
+            scores[i] = ordering.score(board, moves[i], hashMove, ply);
+        }
+    }
+
+    //Próximo lance, ou 0 quando acabarem (0 não é um lance válido: origem igual ao destino)
+    public int next() {
+        if (index >= count) {
+            return 0;
+        }
+
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+
+        int move = moves[best];
+        moves[best] = moves[index];
+        scores[best] = scores[index];
+        moves[index] = move;
+        index++;
+        return move;
+    }
+
+    //Quantos lances já foram entregues
+    public int picked() {
+        return index;
+    }
+}
@@ -0,0 +1,82 @@
+package chess.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import chess.ChessMatch;
+
+/*
+    Busca paralela "Lazy SMP": todas as threads buscam a mesma posição, cada uma
+    na sua cópia da partida, e se ajudam apenas pela tabela de transposição
+    compartilhada. As auxiliares começam em profundidades e ordens de lances
+    diferentes e param quando a thread principal termina; vale o resultado dela.
+*/
+public class ParallelSearch implements AutoCloseable {
+    private TranspositionTable table;
+    private Search[] searches;
+    private ExecutorService executor;
+
+    public ParallelSearch(int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("There must be at least 1 search thread");
+        }
+        this.table = table;
+        searches = new Search[threads];
+        for (int i = 0; i < threads; i++) {
+            searches[i] = new Search(table);
+            searches[i].setHelperId(i);
+        }
+        executor = Executors.newFixedThreadPool(Math.max(1, threads - 1), r -> {
+            Thread t = new Thread(r, "search-helper");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    public int getThreads() {
+        return searches.length;
+    }
+
+    //A partida não é alterada: cada thread busca em uma cópia dela
+    public SearchResult search(ChessMatch match, int maxDepth, long maxNodes) {
+        List<Future<?>> helpers = new ArrayList<>();
+        for (int i = 1; i < searches.length; i++) {
+            Search helper = searches[i];
+            ChessMatch copy = new ChessMatch(match);
+            helper.clearStop();
+            helpers.add(executor.submit(() -> helper.search(copy, Search.MAX_PLY - 1, Long.MAX_VALUE)));
+        }
+
+        SearchResult result = searches[0].search(new ChessMatch(match), maxDepth, maxNodes);
+
+        long nodes = result.getNodes();
+        for (int i = 1; i < searches.length; i++) {
+            searches[i].stop();
+        }
+        for (int i = 0; i < helpers.size(); i++) {
+            try {
+                helpers.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search helper failed", e.getCause());
+            }
+            nodes += searches[i + 1].getNodes();
+        }
+
+        return new SearchResult(result.getBestMove(), result.getScore(), result.getDepth(), nodes);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
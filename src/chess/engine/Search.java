@@ -0,0 +1,317 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessMatch;
+import chess.Move;
+
+/*
+    Busca negamax com poda alfa-beta, aprofundamento iterativo e
+    principal variation search (janela nula nos lances depois do primeiro).
+    Nas folhas, uma busca quiescente resolve as capturas pendentes.
+    Joga e desfaz os lances na própria partida (doMove/undoMove), sem copiar
+    o tabuleiro. Limites: profundidade máxima e/ou número de nós.
+
+    Uma instância por thread; a tabela de transposição pode ser compartilhada.
+*/
+public class Search {
+    public static final int MATE = 30000;
+    public static final int MAX_PLY = 128;
+    private static final int INFINITY = 32000;
+
+    private TranspositionTable table;
+    private int[][] moves = new int[MAX_PLY][Move.MAX_MOVES];
+    private MoveOrdering ordering = new MoveOrdering();
+    private MovePicker[] pickers = new MovePicker[MAX_PLY];
+    private StaticExchange exchange = new StaticExchange();
+    private long nodes;
+    private long maxNodes;
+    private boolean aborted;
+    private volatile boolean stopped;
+    //Threads auxiliares da busca paralela variam a ordem e a profundidade inicial
+    private int helperId;
+
+    public Search() {
+        this(new TranspositionTable(16));
+    }
+
+    public Search(TranspositionTable table) {
+        this.table = table;
+        for (int i = 0; i < MAX_PLY; i++) {
+            pickers[i] = new MovePicker(Move.MAX_MOVES);
+        }
+    }
+
+    void setHelperId(int helperId) {
+        this.helperId = helperId;
+    }
+
+    //Pede para uma busca em andamento (em outra thread) parar o quanto antes
+    public void stop() {
+        stopped = true;
+    }
+
+    //Descarta um stop() que chegou depois do fim da busca anterior
+    void clearStop() {
+        stopped = false;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public SearchResult search(ChessMatch match, int maxDepth) {
+        return search(match, maxDepth, Long.MAX_VALUE);
+    }
+
+    /*
+        Procura até maxDepth ou até gastar maxNodes nós. Se o limite de nós acabar
+        no meio de uma iteração, vale o resultado da última iteração completa.
+        A partida volta ao mesmo estado ao final.
+    */
+    public SearchResult search(ChessMatch match, int maxDepth, long maxNodes) {
+        this.maxNodes = maxNodes;
+        nodes = 0;
+        aborted = false;
+        ordering.newSearch();
+        if (helperId == 0) {
+            table.newSearch();
+        }
+        try {
+            return iterativeDeepening(match, maxDepth);
+        } finally {
+            stopped = false;
+        }
+    }
+
+    private SearchResult iterativeDeepening(ChessMatch match, int maxDepth) {
+
+        int[] rootMoves = moves[0];
+        int count = match.generateLegalMoves(rootMoves);
+        if (count == 0) {
+            return new SearchResult(0, match.getCheck() ? -MATE : 0, 0, 0);
+        }
+
+        if (helperId > 0) {
+            rotate(rootMoves, count, helperId % count);
+        }
+
+        SearchResult result = new SearchResult(rootMoves[0], 0, 0, 0);
+        for (int depth = 1 + (helperId & 1); depth <= Math.min(maxDepth, MAX_PLY - 1); depth++) {
+            int alpha = -INFINITY;
+            int bestIndex = 0;
+
+            for (int i = 0; i < count; i++) {
+                match.doMove(rootMoves[i]);
+                int score;
+                if (i == 0) {
+                    score = -negamax(match, depth - 1, -INFINITY, -alpha, 1);
+                } else {
+                    score = -negamax(match, depth - 1, -alpha - 1, -alpha, 1);
+                    if (score > alpha && !aborted) {
+                        score = -negamax(match, depth - 1, -INFINITY, -alpha, 1);
+                    }
+                }
+                match.undoMove();
+
+                if (aborted) {
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    bestIndex = i;
+                }
+            }
+
+            if (aborted) {
+                break;
+            }
+
+            //O melhor lance desta iteração é o primeiro a ser buscado na próxima
+            int best = rootMoves[bestIndex];
+            System.arraycopy(rootMoves, 0, rootMoves, 1, bestIndex);
+            rootMoves[0] = best;
+            result = new SearchResult(best, alpha, depth, nodes);
+            table.store(match.getHash(), best, alpha, depth, TranspositionTable.EXACT);
+
+            if (Math.abs(alpha) >= MATE - MAX_PLY) {
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    private int negamax(ChessMatch match, int depth, int alpha, int beta, int ply) {
+        if (++nodes > maxNodes || ((nodes & 1023) == 0 && stopped)) {
+            aborted = true;
+            return 0;
+        }
+        //Repetição ou regra dos 50 lances dentro da árvore: empate
+        if (match.getHalfmoveClock() >= 100 || match.isRepetition()) {
+            return 0;
+        }
+        if (depth <= 0) {
+            return quiescence(match, alpha, beta, ply);
+        }
+        if (ply >= MAX_PLY - 1) {
+            return Evaluator.evaluate(match);
+        }
+
+        long key = match.getHash();
+        long entry = table.probe(key);
+        int hashMove = 0;
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int[] list = moves[ply];
+        int count = match.generateLegalMoves(list);
+        if (count == 0) {
+            //Sem lances: checkmate (quanto mais perto, pior) ou afogamento
+            return match.getCheck() ? -MATE + ply : 0;
+        }
+
+        ChessBoard board = match.getBoard();
+        MovePicker picker = pickers[ply];
+        picker.init(list, count, board, ordering, hashMove, ply);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = 0;
+        int move;
+        while ((move = picker.next()) != 0) {
+            boolean quiet = ordering.isQuiet(board, move);
+            match.doMove(move);
+            int score;
+            if (picker.picked() == 1) {
+                score = -negamax(match, depth - 1, -beta, -alpha, ply + 1);
+            } else {
+                score = -negamax(match, depth - 1, -alpha - 1, -alpha, ply + 1);
+                if (score > alpha && score < beta) {
+                    score = -negamax(match, depth - 1, -beta, -alpha, ply + 1);
+                }
+            }
+            match.undoMove();
+
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        if (quiet) {
+                            ordering.cutoff(match.getCurrentPlayer(), move, depth, ply);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = (best >= beta) ? TranspositionTable.LOWER
+            : (best > originalAlpha) ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, toTable(best, ply), depth, bound);
+
+        return best;
+    }
+
+    /*
+        Só capturas e promoções, até a posição ficar quieta. Quem joga pode
+        "ficar parado" com a avaliação estática (stand pat), exceto em check,
+        quando todas as respostas são buscadas. Capturas que perdem material
+        pela SEE são descartadas.
+    */
+    private int quiescence(ChessMatch match, int alpha, int beta, int ply) {
+        if (++nodes > maxNodes || ((nodes & 1023) == 0 && stopped)) {
+            aborted = true;
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return Evaluator.evaluate(match);
+        }
+
+        boolean inCheck = match.getCheck();
+        int[] list = moves[ply];
+        int count;
+        int best;
+        if (inCheck) {
+            count = match.generateLegalMoves(list);
+            if (count == 0) {
+                return -MATE + ply;
+            }
+            best = -INFINITY;
+        } else {
+            best = Evaluator.evaluate(match);
+            if (best >= beta) {
+                return best;
+            }
+            if (best > alpha) {
+                alpha = best;
+            }
+            count = match.generateLegalCaptures(list);
+        }
+
+        ChessBoard board = match.getBoard();
+        MovePicker picker = pickers[ply];
+        picker.init(list, count, board, ordering, 0, ply);
+
+        int move;
+        while ((move = picker.next()) != 0) {
+            if (!inCheck && exchange.evaluate(board, move) < 0) {
+                continue;
+            }
+
+            match.doMove(move);
+            int score = -quiescence(match, -beta, -alpha, ply + 1);
+            match.undoMove();
+
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        return best;
+    }
+
+    //Notas de mate são guardadas relativas ao nó, não à raiz
+    private static int toTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) return score + ply;
+        if (score <= -MATE + MAX_PLY) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) return score - ply;
+        if (score <= -MATE + MAX_PLY) return score + ply;
+        return score;
+    }
+
+    private static void rotate(int[] list, int count, int shift) {
+        int[] aux = new int[count];
+        for (int i = 0; i < count; i++) {
+            aux[i] = list[(i + shift) % count];
+        }
+        System.arraycopy(aux, 0, list, 0, count);
+    }
+}
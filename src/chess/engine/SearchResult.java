@@ -0,0 +1,43 @@
+package chess.engine;
+
+import chess.Move;
+
+//Resultado de uma busca: melhor lance (codificado como em Move) e a nota do ponto de vista de quem joga
+public class SearchResult {
+    private int bestMove;
+    private int score;
+    private int depth;
+    private long nodes;
+
+    public SearchResult(int bestMove, int score, int depth, long nodes) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+    }
+
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+
+    @Override
+    public String toString() {
+        return Move.toString(bestMove) + " score " + score + " depth " + depth + " nodes " + nodes;
+    }
+}
@@ -0,0 +1,83 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.Color;
+import chess.Move;
+import chess.PieceType;
+
+/*
+    Static Exchange Evaluation: saldo de material (centipeões, para quem joga)
+    da sequência de capturas numa casa, cada lado sempre capturando com a peça
+    menos valiosa e podendo parar quando continuar não compensa.
+    Os atacantes são recalculados com a ocupação já sem as peças que capturaram,
+    o que revela as peças de raio escondidas atrás delas (x-ray).
+
+    Os valores das peças são os da avaliação (ChessBoard.getPieceValue). Não
+    valida cravadas; o rei vale muito para que nunca capture uma casa defendida.
+*/
+public class StaticExchange {
+    private static final int KING_VALUE = 20000;
+    private static final PieceType[] TYPES = PieceType.values();
+    private static final int[] VALUES = new int[TYPES.length];
+    static {
+        for (PieceType type : TYPES) {
+            VALUES[type.ordinal()] = (type == PieceType.KING) ? KING_VALUE : ChessBoard.getPieceValue(type);
+        }
+    }
+
+    //No máximo 32 peças no tabuleiro, logo 32 capturas
+    private int[] gain = new int[33];
+
+    public int evaluate(ChessBoard board, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        Color side = board.piece(from).getColor();
+        PieceType victim = MoveOrdering.capturedType(board, move);
+        PieceType promotion = Move.promotion(move);
+
+        long occupancy = board.getOccupancy() ^ (1L << from);
+        if (victim != null && !board.thereIsAPiece(to)) {
+            //En passant: o peão capturado está na casa atrás do destino
+            occupancy ^= 1L << (to + ((side == Color.WHITE) ? 8 : -8));
+        }
+
+        gain[0] = (victim == null) ? 0 : VALUES[victim.ordinal()];
+        //Valor da peça que fica na casa e pode ser capturada em seguida
+        int onSquare = VALUES[board.piece(from).getType().ordinal()];
+        if (promotion != null) {
+            gain[0] += VALUES[promotion.ordinal()] - VALUES[PieceType.PAWN.ordinal()];
+            onSquare = VALUES[promotion.ordinal()];
+        }
+
+        long attackers = board.attackersTo(to, occupancy) & occupancy;
+        int d = 0;
+        while (true) {
+            side = (side == Color.WHITE) ? Color.BLACK : Color.WHITE;
+            long ours = attackers & board.getOccupancy(side);
+            if (ours == 0) {
+                break;
+            }
+
+            d++;
+            //Saldo de quem captura agora, se ninguém recapturar
+            gain[d] = onSquare - gain[d - 1];
+
+            for (PieceType type : TYPES) {
+                long bb = ours & board.getPieces(side, type);
+                if (bb != 0) {
+                    occupancy ^= bb & -bb;
+                    onSquare = VALUES[type.ordinal()];
+                    break;
+                }
+            }
+            attackers = board.attackersTo(to, occupancy) & occupancy;
+        }
+
+        //Volta do fim: cada lado escolhe entre capturar e parar
+        while (d > 0) {
+            gain[d - 1] = -Math.max(-gain[d - 1], gain[d]);
+            d--;
+        }
+        return gain[0];
+    }
+}
@@ -0,0 +1,55 @@
+package chess.engine;
+
+import chess.ChessMatch;
+import chess.ChessPosition;
+
+/*
+    Mede o tempo até uma profundidade fixa com 1, 2, 4, ... threads
+    (até o número de núcleos) e mostra o ganho em relação a uma thread.
+
+    Uso: java chess.engine.TimeToDepth [profundidade] [tamanho da tabela em MB]
+*/
+public final class TimeToDepth {
+
+    //Abertura italiana, para sair da posição inicial simétrica
+    private static final String[] OPENING = {"e2", "e4", "e7", "e5", "g1", "f3", "b8", "c6", "f1", "c4", "g8", "f6"};
+
+    private TimeToDepth() {
+    }
+
+    public static void main(String[] args) {
+        int depth = (args.length > 0) ? Integer.parseInt(args[0]) : 7;
+        int megabytes = (args.length > 1) ? Integer.parseInt(args[1]) : 64;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        ChessMatch match = new ChessMatch();
+        for (int i = 0; i < OPENING.length; i += 2) {
+            match.performChessMove(position(OPENING[i]), position(OPENING[i + 1]));
+        }
+
+        double baseline = run(match, depth, megabytes, 1, 0);
+        for (int threads = 2; threads < cores; threads *= 2) {
+            run(match, depth, megabytes, threads, baseline);
+        }
+        if (cores > 1) {
+            run(match, depth, megabytes, cores, baseline);
+        }
+    }
+
+    //Retorna o tempo em segundos; baseline = 0 na primeira medição
+    private static double run(ChessMatch match, int depth, int megabytes, int threads, double baseline) {
+        try (ParallelSearch search = new ParallelSearch(threads, new TranspositionTable(megabytes))) {
+            long start = System.nanoTime();
+            SearchResult result = search.search(match, depth, Long.MAX_VALUE);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("threads %3d: %7.3f s  speedup %5.2fx  %,d nodes  %s%n",
+                threads, seconds, (baseline > 0) ? baseline / seconds : 1.0, result.getNodes(), result);
+            return seconds;
+        }
+    }
+
+    private static ChessPosition position(String s) {
+        return new ChessPosition(s.charAt(0), s.charAt(1) - '0');
+    }
+}
@@ -0,0 +1,119 @@
+package chess.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/*
+    Tabela de transposição de tamanho fixo (em MB) fora do heap, em buffers diretos,
+    então não pesa no GC por maior que seja. Compartilhada entre threads sem locks.
+
+    A tabela é dividida em baldes de 32 bytes com duas entradas: a primeira só é
+    substituída por buscas mais profundas (ou de uma busca anterior) e a segunda
+    é sempre substituída. Cada entrada ocupa dois longs: (chave ^ dados) e dados;
+    uma leitura só é aceita se (chave ^ dados) ^ dados devolver a chave procurada,
+    então escritas concorrentes que se misturarem são descartadas como uma falta.
+
+    Dados: bits 0-15 lance, 16-31 nota (com sinal), 32-39 profundidade,
+    40-41 tipo de limite, 42-47 geração (número da busca, para envelhecer entradas).
+*/
+public class TranspositionTable {
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+
+    private static final int BUCKET_BYTES = 32;
+    private static final int ENTRY_BYTES = 16;
+    //Um ByteBuffer tem no máximo 2 GB, então tabelas grandes usam vários segmentos de 1 GB
+    private static final int SEGMENT_SHIFT = 25;
+    private static final long SEGMENT_BUCKETS = 1L << SEGMENT_SHIFT;
+
+    private final ByteBuffer[] segments;
+    private final long bucketMask;
+    private int generation;
+
+    //Tamanho em MB, arredondado para baixo até uma potência de dois de baldes
+    public TranspositionTable(int megabytes) {
+        long buckets = Long.highestOneBit(Math.max(1L, (long) megabytes * 1024 * 1024 / BUCKET_BYTES));
+        bucketMask = buckets - 1;
+
+        int count = (int) ((buckets + SEGMENT_BUCKETS - 1) / SEGMENT_BUCKETS);
+        segments = new ByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long size = Math.min(SEGMENT_BUCKETS, buckets - i * SEGMENT_BUCKETS) * BUCKET_BYTES;
+            segments[i] = ByteBuffer.allocateDirect((int) size).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    //Chamado no início de cada busca; entradas de buscas anteriores passam a ser substituíveis
+    public void newSearch() {
+        generation = (generation + 1) & 0x3F;
+    }
+
+    //Dados da entrada da chave, ou 0 se não houver
+    public long probe(long key) {
+        long bucket = key & bucketMask;
+        ByteBuffer segment = segments[(int) (bucket >>> SEGMENT_SHIFT)];
+        int offset = (int) (bucket & (SEGMENT_BUCKETS - 1)) * BUCKET_BYTES;
+
+        for (int slot = offset; slot < offset + BUCKET_BYTES; slot += ENTRY_BYTES) {
+            long data = segment.getLong(slot + 8);
+            if ((segment.getLong(slot) ^ data) == key) {
+                return data;
+            }
+        }
+
+        return 0L;
+    }
+
+    public void store(long key, int move, int score, int depth, int bound) {
+        long bucket = key & bucketMask;
+        ByteBuffer segment = segments[(int) (bucket >>> SEGMENT_SHIFT)];
+        int offset = (int) (bucket & (SEGMENT_BUCKETS - 1)) * BUCKET_BYTES;
+
+        //Primeira entrada: preferida por profundidade
+        long old = segment.getLong(offset + 8);
+        boolean sameKey = (segment.getLong(offset) ^ old) == key;
+        int slot = offset + ENTRY_BYTES;
+        if (sameKey || old == 0 || depth >= depth(old) || generation(old) != generation) {
+            slot = offset;
+        }
+
+        //Mesma posição sem lance novo: mantém o lance que já estava guardado
+        if (move == 0 && sameKey && slot == offset) {
+            move = move(old);
+        }
+
+        long data = (move & 0xFFFFL) | ((score & 0xFFFFL) << 16) | ((long) (depth & 0xFF) << 32)
+            | ((long) bound << 40) | ((long) generation << 42);
+        segment.putLong(slot, key ^ data);
+        segment.putLong(slot + 8, data);
+    }
+
+    public void clear() {
+        for (ByteBuffer segment : segments) {
+            for (int i = 0; i < segment.capacity(); i += 8) {
+                segment.putLong(i, 0L);
+            }
+        }
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> 16);
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 32) & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> 40) & 0x3);
+    }
+
+    private static int generation(long data) {
+        return (int) ((data >>> 42) & 0x3F);
+    }
+}
@@ -0,0 +1,51 @@
+package chess.pgn;
+
+import java.util.Map;
+
+/*
+    Resultado da reprodução de uma partida: tags, lances jogados (codificados
+    como em chess.Move) e, se algo deu errado, a mensagem e o meio-lance do erro.
+*/
+public class GameResult {
+    private long number;
+    private Map<String, String> tags;
+    private int[] moves;
+    private String error;
+
+    public GameResult(long number, Map<String, String> tags, int[] moves, String error) {
+        this.number = number;
+        this.tags = tags;
+        this.moves = moves;
+        this.error = error;
+    }
+
+    public long getNumber() {
+        return number;
+    }
+
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    public String getTag(String name) {
+        return tags.get(name);
+    }
+
+    //Lances válidos até o fim da partida ou até o erro
+    public int[] getMoves() {
+        return moves;
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "Game " + number + ": " + moves.length + " plies" + ((error == null) ? "" : ", " + error);
+    }
+}
@@ -0,0 +1,28 @@
+package chess.pgn;
+
+//Texto bruto de uma partida (tags + lances) como saiu do arquivo, ainda não decodificado
+public class PgnGame {
+    private long number;
+    private byte[] data;
+    private boolean truncated;
+
+    public PgnGame(long number, byte[] data, boolean truncated) {
+        this.number = number;
+        this.data = data;
+        this.truncated = truncated;
+    }
+
+    //Posição da partida no arquivo, a partir de 1
+    public long getNumber() {
+        return number;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    //Partida maior que o limite do leitor: só o começo foi guardado
+    public boolean isTruncated() {
+        return truncated;
+    }
+}
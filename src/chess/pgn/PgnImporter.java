@@ -0,0 +1,124 @@
+package chess.pgn;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/*
+    Pipeline de importação: a thread que chama lê e separa as partidas
+    (PgnReader) e as entrega por uma fila limitada a workers, que decodificam
+    e reproduzem cada partida de forma independente (PgnReplayer). A fila
+    limitada segura o leitor quando os workers ficam para trás, então a
+    memória não cresce com o tamanho do arquivo.
+
+    Os resultados chegam ao consumidor a partir dos workers, fora de ordem
+    (use GameResult.getNumber()); o consumidor precisa ser thread-safe.
+    Uma falha do consumidor ou da reprodução (bug, não PGN inválido) para a
+    leitura e é relançada por importFile.
+
+    Uso: java chess.pgn.PgnImporter arquivo.pgn [threads]
+*/
+public class PgnImporter {
+    //Sinal de fim para os workers
+    private static final PgnGame END = new PgnGame(0, new byte[0], false);
+
+    private int threads;
+    private int queueCapacity;
+
+    public PgnImporter(int threads) {
+        this(threads, threads * 256);
+    }
+
+    public PgnImporter(int threads, int queueCapacity) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("There must be at least 1 import thread");
+        }
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+    }
+
+    //Importa o arquivo inteiro e retorna quantas partidas foram lidas
+    public long importFile(Path path, Consumer<GameResult> sink) throws IOException, InterruptedException {
+        BlockingQueue<PgnGame> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(() -> work(queue, sink, failure), "pgn-worker-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+
+        long games = 0;
+        try (PgnReader reader = new PgnReader(path)) {
+            PgnGame game;
+            while (failure.get() == null && (game = reader.next()) != null) {
+                queue.put(game);
+                games++;
+            }
+        } finally {
+            for (int i = 0; i < threads; i++) {
+                queue.put(END);
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        }
+
+        if (failure.get() != null) {
+            throw new IllegalStateException("PGN import failed", failure.get());
+        }
+        return games;
+    }
+
+    /*
+        Nenhuma falha (nem Error) mata o worker, senão o leitor ficaria bloqueado
+        na fila cheia: ela é guardada e o worker só esvazia a fila até o END.
+    */
+    private static void work(BlockingQueue<PgnGame> queue, Consumer<GameResult> sink,
+            AtomicReference<Throwable> failure) {
+        PgnReplayer replayer = new PgnReplayer();
+        try {
+            PgnGame game;
+            while ((game = queue.take()) != END) {
+                if (failure.get() != null) {
+                    continue;
+                }
+                try {
+                    sink.accept(replayer.replay(game));
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: java chess.pgn.PgnImporter <file.pgn> [threads]");
+            System.exit(2);
+        }
+        int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        AtomicLong plies = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long start = System.nanoTime();
+        long games = new PgnImporter(threads).importFile(Paths.get(args[0]), r -> {
+            plies.addAndGet(r.getMoves().length);
+            if (!r.isValid()) {
+                errors.incrementAndGet();
+                System.err.println(r);
+            }
+        });
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%,d games, %,d plies, %,d errors in %.2fs (%,.0f games/s)%n",
+            games, plies.get(), errors.get(), seconds, games / seconds);
+    }
+}
@@ -0,0 +1,133 @@
+package chess.pgn;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/*
+    Lê um arquivo PGN de qualquer tamanho em janelas mapeadas em memória
+    (FileChannel.map) e separa as partidas sem decodificá-las: uma partida
+    termina quando aparece uma linha de tag ("[") depois de linhas de lances.
+    Dentro de comentários ({...} e ; até o fim da linha) "[" não conta, então
+    linhas de comentário como "[%clk 0:03:00]" ficam na partida.
+    A memória usada é uma janela mapeada mais o buffer da partida atual,
+    limitado a maxGameBytes.
+
+    Não é thread-safe: um leitor alimenta os workers do PgnImporter.
+*/
+public class PgnReader implements AutoCloseable {
+    private static final long WINDOW = 64L << 20;
+    public static final int DEFAULT_MAX_GAME_BYTES = 1 << 20;
+
+    private FileChannel channel;
+    private long size;
+    private long mapped;
+    private MappedByteBuffer window;
+    private int maxGameBytes;
+
+    private byte[] game = new byte[4096];
+    private int length;
+    private boolean truncated;
+    private boolean lineStart = true;
+    private boolean sawMoves;
+    //Linha de tag, comentário entre chaves (pode ter várias linhas) e comentário de linha
+    private boolean tagLine;
+    private boolean braceComment;
+    private boolean lineComment;
+    private long games;
+
+    public PgnReader(Path path) throws IOException {
+        this(path, DEFAULT_MAX_GAME_BYTES);
+    }
+
+    public PgnReader(Path path, int maxGameBytes) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        size = channel.size();
+        this.maxGameBytes = maxGameBytes;
+    }
+
+    //Próxima partida, ou null no fim do arquivo
+    public PgnGame next() throws IOException {
+        while (true) {
+            if (window == null || !window.hasRemaining()) {
+                if (mapped >= size) {
+                    return (sawMoves || hasText()) ? emit() : null;
+                }
+                long length = Math.min(WINDOW, size - mapped);
+                window = channel.map(FileChannel.MapMode.READ_ONLY, mapped, length);
+                mapped += length;
+            }
+
+            while (window.hasRemaining()) {
+                byte b = window.get();
+                if (braceComment) {
+                    braceComment = b != '}';
+                } else if (lineComment) {
+                    lineComment = b != '\n';
+                } else {
+                    if (lineStart && b != '\n' && b != '\r' && b != ' ' && b != '\t') {
+                        tagLine = b == '[';
+                        if (tagLine && sawMoves) {
+                            PgnGame g = emit();
+                            append(b);
+                            lineStart = false;
+                            tagLine = true;
+                            return g;
+                        }
+                        sawMoves |= !tagLine;
+                    }
+                    //Chaves e ";" dentro dos valores das tags não abrem comentário
+                    if (!tagLine) {
+                        braceComment = b == '{';
+                        lineComment = b == ';';
+                    }
+                }
+                append(b);
+                lineStart = (b == '\n');
+                if (lineStart) {
+                    tagLine = false;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    private void append(byte b) {
+        if (length == maxGameBytes) {
+            truncated = true;
+            return;
+        }
+        if (length == game.length) {
+            game = Arrays.copyOf(game, Math.min(game.length * 2, maxGameBytes));
+        }
+        game[length++] = b;
+    }
+
+    private boolean hasText() {
+        for (int i = 0; i < length; i++) {
+            if (game[i] > ' ') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private PgnGame emit() {
+        PgnGame g = new PgnGame(++games, Arrays.copyOf(game, length), truncated);
+        length = 0;
+        truncated = false;
+        sawMoves = false;
+        tagLine = false;
+        braceComment = false;
+        lineComment = false;
+        return g;
+    }
+}
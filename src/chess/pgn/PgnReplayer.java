@@ -0,0 +1,120 @@
+package chess.pgn;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import boardgame.BoardException;
+import chess.ChessMatch;
+import chess.Move;
+
+/*
+    Decodifica uma partida PGN e a reproduz lance a lance em uma ChessMatch
+    (posição inicial ou a tag FEN). Comentários { } e ;, variantes ( ),
+    NAGs ($n), números de lance e o resultado são ignorados.
+
+    Uma instância por thread: os buffers de lances são reaproveitados.
+*/
+public class PgnReplayer {
+    private int[] buffer = new int[Move.MAX_MOVES];
+    private int[] played = new int[512];
+
+    public GameResult replay(PgnGame game) {
+        String text = new String(game.getData(), StandardCharsets.UTF_8);
+        Map<String, String> tags = new LinkedHashMap<>();
+        int i = readTags(text, tags);
+        int plies = 0;
+
+        try {
+            String fen = tags.get("FEN");
+            ChessMatch match = (fen == null) ? new ChessMatch() : new ChessMatch(fen);
+
+            int n = text.length();
+            int depth = 0;
+            while (i < n) {
+                char c = text.charAt(i);
+                if (c == '{') {
+                    int close = text.indexOf('}', i);
+                    i = (close < 0) ? n : close + 1;
+                } else if (c == ';') {
+                    int close = text.indexOf('\n', i);
+                    i = (close < 0) ? n : close + 1;
+                } else if (c == '(') {
+                    depth++;
+                    i++;
+                } else if (c == ')') {
+                    depth--;
+                    i++;
+                } else if (c <= ' ' || c == '.') {
+                    i++;
+                } else {
+                    int end = i;
+                    while (end < n && text.charAt(end) > ' ' && "{};().".indexOf(text.charAt(end)) < 0) {
+                        end++;
+                    }
+                    //Resultado e números de lance ("12." / "12...") terminam no ponto ou são só dígitos
+                    if (depth == 0 && c != '$' && !(c >= '0' && c <= '9' && !isCastling(text, i))
+                            && c != '*') {
+                        int move = SanParser.parse(match, text, i, end, buffer);
+                        if (move == SanParser.ILLEGAL || move == SanParser.AMBIGUOUS) {
+                            String kind = (move == SanParser.ILLEGAL) ? "Illegal" : "Ambiguous";
+                            return result(game, tags, plies, kind + " move " + text.substring(i, end)
+                                + " at ply " + (plies + 1));
+                        }
+                        match.doMove(move);
+                        if (plies == played.length) {
+                            played = Arrays.copyOf(played, plies * 2);
+                        }
+                        played[plies++] = move;
+                    }
+                    i = end;
+                }
+            }
+        } catch (BoardException e) {
+            //FEN inválida, por exemplo: vira erro da partida, não do arquivo (outras exceções são bugs)
+            return result(game, tags, plies, "Invalid position: " + e.getMessage());
+        }
+
+        return result(game, tags, plies, game.isTruncated() ? "Game truncated (too large)" : null);
+    }
+
+    private GameResult result(PgnGame game, Map<String, String> tags, int plies, String error) {
+        return new GameResult(game.getNumber(), tags, Arrays.copyOf(played, plies), error);
+    }
+
+    //"0-0" e "0-0-0" começam com dígito mas são roques
+    private static boolean isCastling(String text, int i) {
+        return text.startsWith("0-0", i) && !text.startsWith("0-1", i);
+    }
+
+    //Lê as linhas [Nome "Valor"] do começo e retorna onde começam os lances
+    private static int readTags(String text, Map<String, String> tags) {
+        int i = 0;
+        int n = text.length();
+        while (true) {
+            while (i < n && text.charAt(i) <= ' ') {
+                i++;
+            }
+            if (i >= n || text.charAt(i) != '[') {
+                return i;
+            }
+            int close = text.indexOf(']', i);
+            int open = text.indexOf('"', i);
+            if (close < 0) {
+                return n;
+            }
+            if (open >= 0 && open < close) {
+                int valueEnd = text.indexOf('"', open + 1);
+                if (valueEnd > close) {
+                    close = text.indexOf(']', valueEnd);
+                    if (close < 0) {
+                        return n;
+                    }
+                }
+                tags.put(text.substring(i + 1, open).trim(), text.substring(open + 1, Math.max(valueEnd, open + 1)));
+            }
+            i = close + 1;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package chess.pgn;
+
+import chess.ChessBoard;
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.Move;
+import chess.PieceType;
+
+/*
+    Notação algébrica padrão (SAN): Nf3, exd5, Raxd1, e8=Q, O-O-O, com
+    ou sem +, #, !, ?. O lance é procurado entre os lances legais do jogador
+    da vez, então tudo o que for ilegal ou ambíguo simplesmente não é encontrado.
+*/
+public final class SanParser {
+    public static final int ILLEGAL = 0;
+    public static final int AMBIGUOUS = -1;
+
+    private SanParser() {
+    }
+
+    public static int parse(ChessMatch match, String san, int[] buffer) {
+        return parse(match, san, 0, san.length(), buffer);
+    }
+
+    //Lê o lance em text[start, end); retorna o lance codificado, ILLEGAL ou AMBIGUOUS
+    public static int parse(ChessMatch match, CharSequence text, int start, int end, int[] buffer) {
+        while (end > start && "+#!?".indexOf(text.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        if (end - start < 2) {
+            return ILLEGAL;
+        }
+
+        int count = match.generateLegalMoves(buffer);
+        ChessBoard board = match.getBoard();
+
+        char first = text.charAt(start);
+        if (first == 'O' || first == '0') {
+            //Roque: O-O (rei anda duas casas para a direita) ou O-O-O (para a esquerda)
+            int direction = (end - start >= 5) ? -2 : 2;
+            for (int i = 0; i < count; i++) {
+                int move = buffer[i];
+                if (board.piece(Move.from(move)).getType() == PieceType.KING
+                        && Move.to(move) - Move.from(move) == direction) {
+                    return move;
+                }
+            }
+            return ILLEGAL;
+        }
+
+        PieceType type = PieceType.PAWN;
+        int i = start;
+        int letter = "NBRQK".indexOf(first);
+        if (letter >= 0) {
+            type = PieceType.values()[letter + 1];
+            i++;
+        }
+
+        PieceType promotion = null;
+        int last = text.charAt(end - 1);
+        int promotionLetter = "NBRQ".indexOf(last);
+        if (type == PieceType.PAWN && promotionLetter >= 0) {
+            promotion = PieceType.values()[promotionLetter + 1];
+            end--;
+            if (text.charAt(end - 1) == '=') {
+                end--;
+            }
+        }
+        if (end - i < 2) {
+            return ILLEGAL;
+        }
+
+        int toColumn = text.charAt(end - 2) - 'a';
+        int toRank = text.charAt(end - 1) - '1';
+        if (toColumn < 0 || toColumn > 7 || toRank < 0 || toRank > 7) {
+            return ILLEGAL;
+        }
+        int to = ChessBoard.square(7 - toRank, toColumn);
+
+        //Desambiguação: coluna e/ou fileira de origem; o 'x' de captura é ignorado
+        int fromColumn = -1;
+        int fromRow = -1;
+        for (; i < end - 2; i++) {
+            char c = text.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromColumn = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRow = 7 - (c - '1');
+            } else if (c != 'x' && c != '-' && c != ':') {
+                return ILLEGAL;
+            }
+        }
+
+        int found = ILLEGAL;
+        for (int k = 0; k < count; k++) {
+            int move = buffer[k];
+            int from = Move.from(move);
+            ChessPiece piece = board.piece(from);
+            if (Move.to(move) != to || piece.getType() != type || Move.promotion(move) != promotion
+                    || (fromColumn >= 0 && ChessBoard.column(from) != fromColumn)
+                    || (fromRow >= 0 && ChessBoard.row(from) != fromRow)) {
+                continue;
+            }
+            if (found != ILLEGAL) {
+                return AMBIGUOUS;
+            }
+            found = move;
+        }
+
+        return found;
+    }
+}
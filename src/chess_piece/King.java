@@ -1,117 +1,75 @@
 package chess_piece;
 
 import boardgame.Board;
-import boardgame.Position;
+import chess.Attacks;
+import chess.ChessBoard;
 import chess.ChessMatch;
 import chess.ChessPiece;
 import chess.Color;
+import chess.PieceType;
 
 public class King extends ChessPiece {
 
-    private ChessMatch chessMatch;
+    public King(Board board, Color color) {
+        super(board, color);
+    }
 
+    //Assinatura antiga: o rei não usa mais a partida (o roque consulta os ataques no tabuleiro)
+    @Deprecated
     public King(Board board, Color color, ChessMatch chessMatch) {
-        super(board, color);
-        this.chessMatch = chessMatch;
+        this(board, color);
     }
 
     @Override
-    public String toString() {
-        return "K";
+    public PieceType getType() {
+        return PieceType.KING;
     }
 
-    private boolean canMove(Position position) {
-        ChessPiece piece = (ChessPiece)getBoard().piece(position);
-        return piece == null || piece.getColor() != getColor();
+    @Override
+    public String toString() {
+        return "K";
     }
 
-    private boolean testRookCastling(Position position) {
-        ChessPiece p = (ChessPiece)getBoard().piece(position);
+    private boolean testRookCastling(int row, int column) {
+        if (column < 0 || column > 7) {
+            return false;
+        }
+        ChessPiece p = getChessBoard().piece(ChessBoard.square(row, column));
         return p != null && p instanceof Rook && p.getColor() == getColor() && p.getMoveCount() == 0;
     }
 
     @Override
-    public boolean[][] possibleMoves() {
-        boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
-        
-        Position p = new Position(0, 0);
-
-        //above
-        p.setValues(position.getRow() - 1, position.getColumn());
-        if(getBoard().positionExists(p) && canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-        //below
-        p.setValues(position.getRow() + 1, position.getColumn());
-        if(getBoard().positionExists(p) && canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-        //left
-        p.setValues(position.getRow(), position.getColumn() -1);
-        if(getBoard().positionExists(p) && canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-        //right
-        p.setValues(position.getRow(), position.getColumn() +1);
-        if(getBoard().positionExists(p) && canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-        //norwest
-        p.setValues(position.getRow() - 1, position.getColumn() - 1);
-        if(getBoard().positionExists(p) && canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-        //noreast
-        p.setValues(position.getRow() - 1, position.getColumn() + 1);
-        if(getBoard().positionExists(p) && canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-        //southwest
-        p.setValues(position.getRow() + 1, position.getColumn() - 1);
-        if(getBoard().positionExists(p) && canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-        //southeast
-        p.setValues(position.getRow() + 1, position.getColumn() + 1);
-        if(getBoard().positionExists(p) && canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
+    public long possibleMovesMask() {
+        long mask = Attacks.king(getSquare()) & notOwnPieces();
 
+        // #Special move Castling: o rei não pode estar em check nem passar por casa atacada
+        ChessBoard board = getChessBoard();
+        Color opponent = (getColor() == Color.WHITE) ? Color.BLACK : Color.WHITE;
+        if (getMoveCount() == 0 && !board.isSquareAttacked(getSquare(), opponent)) {
+            int row = position.getRow();
+            int column = position.getColumn();
+            long occupancy = board.getOccupancy();
 
-        // #Special move Castling
-        if (getMoveCount() == 0 && !chessMatch.getCheck()) {
             //# Special move Castling Kingside Rook 
-            Position positionTorre1 = new Position(position.getRow(), position.getColumn() + 3);
-            if (testRookCastling(positionTorre1)) {
-                Position p1 = new Position(position.getRow(), position.getColumn() + 1);
-                Position p2 = new Position(position.getRow(), position.getColumn() + 2);
-                if (getBoard().piece(p1) == null && getBoard().piece(p2) == null) {
-                    mat[position.getRow()][position.getColumn() + 2] = true;
+            if (testRookCastling(row, column + 3)) {
+                long path = (1L << ChessBoard.square(row, column + 1)) | (1L << ChessBoard.square(row, column + 2));
+                if ((occupancy & path) == 0 && !board.isSquareAttacked(ChessBoard.square(row, column + 1), opponent)) {
+                    mask |= 1L << ChessBoard.square(row, column + 2);
                 }
             }
             
             //# Special move Castling Queenside Rook
-            Position positionTorre2 = new Position(position.getRow(), position.getColumn() - 4);
-            if (testRookCastling(positionTorre2)) {
-                Position p1 = new Position(position.getRow(), position.getColumn() - 1);
-                Position p2 = new Position(position.getRow(), position.getColumn() - 2);
-                Position p3 = new Position(position.getRow(), position.getColumn() - 3);
-                if (getBoard().piece(p1) == null && getBoard().piece(p2) == null && getBoard().piece(p3) == null) {
-                    mat[position.getRow()][position.getColumn() - 2] = true;
+            if (testRookCastling(row, column - 4)) {
+                long path = (1L << ChessBoard.square(row, column - 1)) | (1L << ChessBoard.square(row, column - 2))
+                    | (1L << ChessBoard.square(row, column - 3));
+                if ((occupancy & path) == 0 && !board.isSquareAttacked(ChessBoard.square(row, column - 1), opponent)) {
+                    mask |= 1L << ChessBoard.square(row, column - 2);
                 }
             }
 
         }
 
-        
-        return mat;
+        return mask;
     }
     
     
@@ -1,9 +1,10 @@
 package chess_piece;
 
 import boardgame.Board;
-import boardgame.Position;
+import chess.Attacks;
 import chess.ChessPiece;
 import chess.Color;
+import chess.PieceType;
 
 public class Knight extends ChessPiece {
 
@@ -12,71 +13,18 @@ public class Knight extends ChessPiece {
     }
 
     @Override
-    public String toString() {
-        return "N";
+    public PieceType getType() {
+        return PieceType.KNIGHT;
     }
 
-    private boolean canMove(Position position) {
-        ChessPiece piece = (ChessPiece)getBoard().piece(position);
-        return piece == null || piece.getColor() != getColor();
+    @Override
+    public String toString() {
+        return "N";
     }
 
     @Override
-    public boolean[][] possibleMoves() {
-        boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
-        
-        Position p = new Position(0, 0);
-
-      
-        p.setValues(position.getRow() - 1, position.getColumn() - 2);
-        if(getBoard().positionExists(p) && canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-       
-        p.setValues(position.getRow() - 2 , position.getColumn() - 1);
-        if(getBoard().positionExists(p) && canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-       
-        p.setValues(position.getRow() - 2, position.getColumn() + 1);
-        if(getBoard().positionExists(p) && canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-       
-        p.setValues(position.getRow() - 1, position.getColumn() + 2);
-        if(getBoard().positionExists(p) && canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-      
-        p.setValues(position.getRow() + 1, position.getColumn() + 2);
-        if(getBoard().positionExists(p) && canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-        p.setValues(position.getRow() + 2, position.getColumn() + 1);
-        if(getBoard().positionExists(p) && canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-      
-        p.setValues(position.getRow() + 2, position.getColumn() - 1);
-        if(getBoard().positionExists(p) && canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-      
-        p.setValues(position.getRow() + 1, position.getColumn() - 2);
-        if(getBoard().positionExists(p) && canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-
-        
-        return mat;
+    public long possibleMovesMask() {
+        return Attacks.knight(getSquare()) & notOwnPieces();
     }
     
     
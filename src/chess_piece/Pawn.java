@@ -1,10 +1,11 @@
 package chess_piece;
 
 import boardgame.Board;
-import boardgame.Position;
+import chess.ChessBoard;
 import chess.ChessMatch;
 import chess.ChessPiece;
 import chess.Color;
+import chess.PieceType;
 
 public class Pawn extends ChessPiece {
 
@@ -16,88 +17,61 @@ public class Pawn extends ChessPiece {
     }
 
     @Override
-    public boolean[][] possibleMoves() {
-        boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
-        
-        Position p = new Position(0, 0);
-        
-        // COR BRANCA
-        if(getColor() == Color.WHITE) {
-           p.setValues(position.getRow() - 1, position.getColumn());
-           if(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-               mat[p.getRow()][p.getColumn()] = true;
-           } 
-           p.setValues(position.getRow() - 2, position.getColumn());
-           Position p2 = new Position(position.getRow() - 1, position.getColumn()); //Testando a posição a frente do peão branco
-           if(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p) && getBoard().positionExists(p2) && !getBoard().thereIsAPiece(p2) && getMoveCount() == 0) {
-               mat[p.getRow()][p.getColumn()] = true;
-           } 
+    public long possibleMovesMask() {
+        ChessBoard board = getChessBoard();
+        long occupancy = board.getOccupancy();
+        Color opponent = (getColor() == Color.WHITE) ? Color.BLACK : Color.WHITE;
+        long opponentPieces = board.getOccupancy(opponent);
 
-           //Testando a diagonal esquerda do peão 
-           p.setValues(position.getRow() - 1, position.getColumn() - 1);
-           if(getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-               mat[p.getRow()][p.getColumn()] = true;
-           } 
-
-           //Testando a diagonal direita do peão 
-           p.setValues(position.getRow() - 1, position.getColumn() + 1);
-           if(getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-               mat[p.getRow()][p.getColumn()] = true;
-           }
-
-           //specialmove enpassant white
-           if(position.getRow() == 3) {
-               Position left = new Position(position.getRow(), position.getColumn() - 1);
-               if(getBoard().positionExists(left) && isThereOpponentPiece(left) && getBoard().piece(left) == chessMatch.getEnPassantVulnerable()) {
-                   mat[left.getRow() - 1][left.getColumn()] = true;
-               }
-               
-               Position right = new Position(position.getRow(), position.getColumn() + 1);
-               if(getBoard().positionExists(right) && isThereOpponentPiece(right) && getBoard().piece(right) == chessMatch.getEnPassantVulnerable()) {
-                   mat[right.getRow() - 1][right.getColumn()] = true;
-               }
-           }
+        int row = position.getRow();
+        int column = position.getColumn();
+        //Branco anda para cima (linha diminui), preto para baixo
+        int forward = (getColor() == Color.WHITE) ? -1 : 1;
+        int next = row + forward;
+        if (next < 0 || next > 7) {
+            return 0L;
+        }
 
-           //COR PRETA
-        } else {
-           p.setValues(position.getRow() + 1, position.getColumn());
-           if(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-               mat[p.getRow()][p.getColumn()] = true;
-           } 
-           p.setValues(position.getRow() + 2, position.getColumn());
-           Position p2 = new Position(position.getRow() + 1, position.getColumn()); //Testando a posição a frente do peão branco
-           if(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p) && getBoard().positionExists(p2) && !getBoard().thereIsAPiece(p2) && getMoveCount() == 0) {
-               mat[p.getRow()][p.getColumn()] = true;
-           } 
+        long mask = 0L;
 
-           //Testando a diagonal esquerda do peão 
-           p.setValues(position.getRow() + 1, position.getColumn() - 1);
-           if(getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-               mat[p.getRow()][p.getColumn()] = true;
-           } 
+        //Uma casa a frente e, no primeiro movimento, duas casas
+        long one = 1L << ChessBoard.square(next, column);
+        if ((occupancy & one) == 0) {
+            mask |= one;
+            int twoRow = next + forward;
+            if (getMoveCount() == 0 && twoRow >= 0 && twoRow <= 7) {
+                long two = 1L << ChessBoard.square(twoRow, column);
+                if ((occupancy & two) == 0) {
+                    mask |= two;
+                }
+            }
+        }
 
-           //Testando a diagonal direita do peão 
-           p.setValues(position.getRow() + 1, position.getColumn() + 1);
-           if(getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-               mat[p.getRow()][p.getColumn()] = true;
-           }
+        //Diagonais esquerda e direita
+        if (column > 0) {
+            mask |= (1L << ChessBoard.square(next, column - 1)) & opponentPieces;
+        }
+        if (column < 7) {
+            mask |= (1L << ChessBoard.square(next, column + 1)) & opponentPieces;
+        }
 
-           //Special move en passant black
-           if(position.getRow() == 4) {
-            Position left = new Position(position.getRow(), position.getColumn() - 1);
-            if(getBoard().positionExists(left) && isThereOpponentPiece(left) && getBoard().piece(left) == chessMatch.getEnPassantVulnerable()) {
-                mat[left.getRow() + 1][left.getColumn()] = true;
+        //Special move en passant (linha 3 para o branco, 4 para o preto)
+        ChessPiece vulnerable = chessMatch.getEnPassantVulnerable();
+        if (vulnerable != null && row == ((getColor() == Color.WHITE) ? 3 : 4)) {
+            if (column > 0 && board.piece(ChessBoard.square(row, column - 1)) == vulnerable && vulnerable.getColor() == opponent) {
+                mask |= 1L << ChessBoard.square(next, column - 1);
             }
-            
-            Position right = new Position(position.getRow(), position.getColumn() + 1);
-            if(getBoard().positionExists(right) && isThereOpponentPiece(right) && getBoard().piece(right) == chessMatch.getEnPassantVulnerable()) {
-                mat[right.getRow() + 1][right.getColumn()] = true;
+            if (column < 7 && board.piece(ChessBoard.square(row, column + 1)) == vulnerable && vulnerable.getColor() == opponent) {
+                mask |= 1L << ChessBoard.square(next, column + 1);
             }
         }
 
-        }
-        
-        return mat;
+        return mask;
+    }
+
+    @Override
+    public PieceType getType() {
+        return PieceType.PAWN;
     }
 
     @Override
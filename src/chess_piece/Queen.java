@@ -1,114 +1,28 @@
 package chess_piece;
 
 import boardgame.Board;
-import boardgame.Position;
+import chess.Attacks;
 import chess.ChessPiece;
 import chess.Color;
+import chess.PieceType;
 
 public class Queen extends ChessPiece {
     public Queen(Board board, Color color) {
         super(board, color);
     }
 
+    @Override
+    public PieceType getType() {
+        return PieceType.QUEEN;
+    }
+
     @Override
     public String toString() {
         return "Q";
     }
 
     @Override
-    public boolean[][] possibleMoves() {
-        boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
-        
-        Position p = new Position(0, 0);
-        
-        //above
-        p.setValues(position.getRow() - 1, position.getColumn());
-
-        while(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-            p.setRow(p.getRow() - 1);
-        }
-        if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-        //left
-        p.setValues(position.getRow(), position.getColumn() -1);
-
-        while(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-            p.setColumn(p.getColumn() - 1);
-        }
-        if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-        //right
-        p.setValues(position.getRow(), position.getColumn() + 1);
-
-        while(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-            p.setColumn(p.getColumn() + 1);
-        }
-        if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-        //below
-        p.setValues(position.getRow() + 1, position.getColumn());
-
-        while(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-            p.setRow(p.getRow() + 1);
-        }
-        if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-         //nw
-         p.setValues(position.getRow() - 1, position.getColumn() - 1);
-
-         while(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-             mat[p.getRow()][p.getColumn()] = true;
-             p.setValues(p.getRow() - 1, p.getColumn() - 1);
-         }
-         if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-             mat[p.getRow()][p.getColumn()] = true;
-         }
- 
-         //ne
-         p.setValues(position.getRow() - 1, position.getColumn() + 1);
- 
-         while(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-             mat[p.getRow()][p.getColumn()] = true;
-             p.setValues(p.getRow() - 1, p.getColumn() + 1);
-         }
-         if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-             mat[p.getRow()][p.getColumn()] = true;
-         }
- 
-         //se
-         p.setValues(position.getRow() + 1, position.getColumn() + 1);
- 
-         while(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-             mat[p.getRow()][p.getColumn()] = true;
-             p.setValues(p.getRow() + 1, p.getColumn() + 1);
-         }
-         if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-             mat[p.getRow()][p.getColumn()] = true;
-         }
- 
-         //sw
-         p.setValues(position.getRow() + 1, position.getColumn() - 1);
- 
-         while(getBoard().positionExists(p) && !getBoard().thereIsAPiece(p)) {
-             mat[p.getRow()][p.getColumn()] = true;
-             p.setValues(p.getRow() + 1, p.getColumn() - 1);
-         }
-         if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-             mat[p.getRow()][p.getColumn()] = true;
-         }
-        
-        return mat;
+    public long possibleMovesMask() {
+        return Attacks.queen(getSquare(), getChessBoard().getOccupancy()) & notOwnPieces();
     }
 }
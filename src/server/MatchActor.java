@@ -0,0 +1,70 @@
+package server;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import chess.ChessMatch;
+
+/*
+    Ator de uma partida: as tarefas entram numa fila própria e são executadas
+    uma de cada vez no executor compartilhado, então a ChessMatch nunca é
+    acessada por duas threads ao mesmo tempo, sem locks. Partidas diferentes
+    rodam em paralelo. Cada vez que ganha uma thread o ator executa no máximo
+    BATCH tarefas e volta para o fim da fila do executor, para que uma partida
+    muito ativa não atrase as outras.
+*/
+class MatchActor {
+    private static final int BATCH = 32;
+
+    private long id;
+    private ChessMatch match;
+    private Executor executor;
+    private Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private AtomicBoolean scheduled = new AtomicBoolean();
+
+    MatchActor(long id, ChessMatch match, Executor executor) {
+        this.id = id;
+        this.match = match;
+        this.executor = executor;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    //Só pode ser usada por tarefas deste ator
+    ChessMatch getMatch() {
+        return match;
+    }
+
+    void submit(Runnable task) {
+        mailbox.add(task);
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            for (int i = 0; i < BATCH; i++) {
+                Runnable task = mailbox.poll();
+                if (task == null) {
+                    break;
+                }
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    //A tarefa responde pelos próprios erros; aqui só não deixa o ator parar
+                }
+            }
+        } finally {
+            //Uma tarefa pode ter chegado entre o último poll e a liberação
+            scheduled.set(false);
+            if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package server;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import chess.ChessException;
+import chess.ChessMatch;
+import chess.MoveResult;
+import chess.PieceType;
+
+/*
+    Serviço que hospeda muitas partidas ao mesmo tempo, sem interface: cada
+    partida é um MatchActor e todas dividem um pool fixo de threads (uma por
+    núcleo), então o número de partidas não depende do número de threads.
+
+    As operações são assíncronas e respondem por CompletableFuture; as
+    respostas são completadas na thread do ator, então quem encadear trabalho
+    pesado nelas deve usar as variantes *Async.
+
+    Lances são passados como casas do ChessBoard (a8 = 0, h1 = 63).
+*/
+public class MatchService implements AutoCloseable {
+    //Respostas de recusa não têm estado, então são compartilhadas
+    private static final MoveReply[] REJECTIONS = new MoveReply[MoveResult.values().length];
+    static {
+        for (MoveResult result : MoveResult.values()) {
+            REJECTIONS[result.ordinal()] = new MoveReply(result, null);
+        }
+    }
+
+    private ConcurrentHashMap<Long, MatchActor> matches = new ConcurrentHashMap<>();
+    private AtomicLong nextId = new AtomicLong(1);
+    private ExecutorService executor;
+
+    public MatchService() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public MatchService(int threads) {
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "match-worker");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    //Cria uma partida na posição inicial e retorna o id
+    public long createMatch() {
+        return register(new ChessMatch());
+    }
+
+    public long createMatch(String fen) {
+        return register(new ChessMatch(fen));
+    }
+
+    public int getMatchCount() {
+        return matches.size();
+    }
+
+    public CompletableFuture<MatchState> state(long id) {
+        CompletableFuture<MatchState> reply = new CompletableFuture<>();
+        MatchActor actor = matches.get(id);
+        if (actor == null) {
+            reply.completeExceptionally(new ChessException("There is no match " + id));
+            return reply;
+        }
+        actor.submit(() -> {
+            try {
+                reply.complete(new MatchState(id, actor.getMatch()));
+            } catch (Throwable e) {
+                reply.completeExceptionally(e);
+                throw e;
+            }
+        });
+        return reply;
+    }
+
+    //promotion = null para lances sem promoção (o peão vira dama, como no jogo pelo terminal)
+    public CompletableFuture<MoveReply> move(long id, int from, int to, PieceType promotion) {
+        CompletableFuture<MoveReply> reply = new CompletableFuture<>();
+        MatchActor actor = matches.get(id);
+        if (actor == null) {
+            reply.completeExceptionally(new ChessException("There is no match " + id));
+            return reply;
+        }
+        actor.submit(() -> {
+            try {
+                reply.complete(play(actor, from, to, promotion));
+            } catch (Throwable e) {
+                reply.completeExceptionally(e);
+                throw e;
+            }
+        });
+        return reply;
+    }
+
+    //Versão do front end de rede: a resposta é escrita pelo ator direto no sink, sem future nem MatchState
+    void move(long id, int from, int to, PieceType promotion, MoveSink sink, int request) {
+        MatchActor actor = matches.get(id);
+        if (actor == null) {
+            sink.failed(request, "There is no match " + id);
+            return;
+        }
+        actor.submit(() -> {
+            try {
+                ChessMatch match = actor.getMatch();
+                MoveResult result = match.tryMove(from, to, promotion);
+                if (result == MoveResult.OK) {
+                    sink.moved(request, match);
+                } else {
+                    sink.rejected(request, result);
+                }
+            } catch (Throwable e) {
+                sink.failed(request, e.toString());
+                throw e;
+            }
+        });
+    }
+
+    //Remove a partida; tarefas já enfileiradas ainda são executadas
+    public boolean closeMatch(long id) {
+        return matches.remove(id) != null;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private long register(ChessMatch match) {
+        long id = nextId.getAndIncrement();
+        matches.put(id, new MatchActor(id, match, executor));
+        return id;
+    }
+
+    //Executado na thread do ator; a recusa não aloca nada além da resposta
+    private static MoveReply play(MatchActor actor, int from, int to, PieceType promotion) {
+        ChessMatch match = actor.getMatch();
+        MoveResult result = match.tryMove(from, to, promotion);
+        if (result != MoveResult.OK) {
+            return REJECTIONS[result.ordinal()];
+        }
+        return new MoveReply(result, new MatchState(actor.getId(), match));
+    }
+}
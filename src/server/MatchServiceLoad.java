@@ -0,0 +1,74 @@
+package server;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import chess.ChessBoard;
+
+/*
+    Carga no MatchService: cria muitas partidas, joga a abertura italiana em
+    todas ao mesmo tempo (um meio-lance de cada partida por rodada) e mostra a
+    latência dos lances (do envio à resposta) em percentis.
+
+    Uso: java server.MatchServiceLoad [partidas] [threads]
+*/
+public final class MatchServiceLoad {
+
+    private static final String[] OPENING = {"e2", "e4", "e7", "e5", "g1", "f3", "b8", "c6", "f1", "c4", "g8", "f6"};
+
+    private MatchServiceLoad() {
+    }
+
+    public static void main(String[] args) {
+        int count = (args.length > 0) ? Integer.parseInt(args[0]) : 10000;
+        int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        try (MatchService service = new MatchService(threads)) {
+            long[] ids = new long[count];
+            for (int i = 0; i < count; i++) {
+                ids[i] = service.createMatch();
+            }
+
+            int plies = OPENING.length / 2;
+            long[] latencies = new long[count * plies];
+            List<CompletableFuture<MoveReply>> replies = new ArrayList<>(count);
+            long start = System.nanoTime();
+            for (int ply = 0; ply < plies; ply++) {
+                int from = square(OPENING[2 * ply]);
+                int to = square(OPENING[2 * ply + 1]);
+                replies.clear();
+                for (int i = 0; i < count; i++) {
+                    int slot = ply * count + i;
+                    long sent = System.nanoTime();
+                    //Completado na thread do ator: o tempo é medido do envio até a resposta
+                    replies.add(service.move(ids[i], from, to, null)
+                        .whenComplete((reply, error) -> latencies[slot] = System.nanoTime() - sent));
+                }
+                for (CompletableFuture<MoveReply> reply : replies) {
+                    if (!reply.join().isAccepted()) {
+                        throw new IllegalStateException(reply.join().getError());
+                    }
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            Arrays.sort(latencies);
+            System.out.printf("%,d matches, %,d moves in %.2fs (%,.0f moves/s) with %d threads%n",
+                count, latencies.length, seconds, latencies.length / seconds, threads);
+            System.out.printf("move latency p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0));
+            System.out.println(service.state(ids[0]).join());
+        }
+    }
+
+    private static int square(String name) {
+        return ChessBoard.square('8' - name.charAt(1), name.charAt(0) - 'a');
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int i = (int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)));
+        return sorted[i] / 1e6;
+    }
+}
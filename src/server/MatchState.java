@@ -0,0 +1,64 @@
+package server;
+
+import chess.ChessMatch;
+import chess.Color;
+import chess.DrawReason;
+
+//Retrato imutável de uma partida, tirado dentro do ator da partida
+public class MatchState {
+    private long id;
+    private String fen;
+    private int turn;
+    private Color currentPlayer;
+    private boolean check;
+    private boolean checkMate;
+    private DrawReason drawReason;
+
+    MatchState(long id, ChessMatch match) {
+        this.id = id;
+        fen = match.toFen();
+        turn = match.getTurn();
+        currentPlayer = match.getCurrentPlayer();
+        check = match.getCheck();
+        checkMate = match.getCheckMate();
+        drawReason = match.getDrawReason();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getFen() {
+        return fen;
+    }
+
+    public int getTurn() {
+        return turn;
+    }
+
+    public Color getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    public boolean getCheck() {
+        return check;
+    }
+
+    public boolean getCheckMate() {
+        return checkMate;
+    }
+
+    public boolean getDraw() {
+        return drawReason != null;
+    }
+
+    public DrawReason getDrawReason() {
+        return drawReason;
+    }
+
+    @Override
+    public String toString() {
+        return "Match " + id + ": " + fen + (checkMate ? " (checkmate)" : (drawReason != null) ? " (draw: " + drawReason + ")"
+            : check ? " (check)" : "");
+    }
+}
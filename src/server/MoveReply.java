@@ -0,0 +1,31 @@
+package server;
+
+import chess.MoveResult;
+
+//Resposta a um lance: aceito com o novo estado, ou recusado com o motivo
+public class MoveReply {
+    private MoveResult result;
+    private MatchState state;
+
+    MoveReply(MoveResult result, MatchState state) {
+        this.result = result;
+        this.state = state;
+    }
+
+    public boolean isAccepted() {
+        return result == MoveResult.OK;
+    }
+
+    public MoveResult getResult() {
+        return result;
+    }
+
+    public String getError() {
+        return result.getMessage();
+    }
+
+    //Estado da partida depois do lance; null se o lance foi recusado
+    public MatchState getState() {
+        return state;
+    }
+}
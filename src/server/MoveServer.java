@@ -0,0 +1,339 @@
+package server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import chess.ChessMatch;
+import chess.MoveResult;
+import chess.PieceType;
+
+/*
+    Front end não bloqueante do MatchService: uma única thread com um Selector
+    atende todas as conexões e fala o protocolo de Protocol.
+
+    Leitura: os quadros são decodificados direto do buffer de entrada da
+    conexão (lendo os campos por posição, sem criar objetos) e repassados ao
+    ator da partida. Escrita: o ator escreve a resposta no buffer de saída da
+    conexão (lances vão direto da ChessMatch, só STATE monta a FEN) e a marca
+    como pendente; a thread do Selector junta tudo o que estiver pendente e
+    faz um write por conexão.
+
+    Uso: java server.MoveServer [porta] (escuta só em loopback)
+*/
+public class MoveServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 7878;
+    //Cliente que não lê as respostas é desconectado quando a saída passa disso
+    private static final int MAX_OUTPUT = 1 << 20;
+
+    private static final PieceType[] TYPES = PieceType.values();
+
+    private MatchService service;
+    private Selector selector;
+    private ServerSocketChannel server;
+    private Queue<Connection> pending = new ConcurrentLinkedQueue<>();
+    private AtomicBoolean wakeupRequested = new AtomicBoolean();
+    private volatile boolean running = true;
+    private Thread thread;
+
+    public MoveServer(MatchService service, int port) throws IOException {
+        this.service = service;
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    public void start() {
+        thread = new Thread(this::run, "move-server");
+        thread.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                wakeupRequested.set(false);
+                flushPending();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            Connection c = (Connection) key.attachment();
+                            if (key.isReadable()) {
+                                read(c);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                write(c);
+                            }
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        //Só esta conexão cai; a thread do Selector continua
+                        disconnect(key);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Move server failed", e);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        key.attach(new Connection(channel, key));
+    }
+
+    private void read(Connection c) throws IOException {
+        if (c.channel.read(c.in) < 0) {
+            disconnect(c.key);
+            return;
+        }
+
+        ByteBuffer in = c.in;
+        in.flip();
+        while (in.remaining() >= 2) {
+            int length = in.getShort(in.position()) & 0xFFFF;
+            if (length < Protocol.HEADER_BYTES - 2 || length > Protocol.MAX_FRAME) {
+                disconnect(c.key);
+                return;
+            }
+            if (in.remaining() < 2 + length) {
+                break;
+            }
+            int start = in.position() + 2;
+            in.position(start + length);
+            dispatch(c, in, start, length);
+        }
+        in.compact();
+    }
+
+    //Lê os campos do quadro por posição absoluta no buffer
+    private void dispatch(Connection c, ByteBuffer in, int start, int length) {
+        byte op = in.get(start);
+        int request = in.getInt(start + 1);
+        int data = start + 5;
+        int dataLength = length - 5;
+
+        if (op == Protocol.CREATE) {
+            long id = service.createMatch();
+            c.created(request, id);
+        } else if (op == Protocol.MOVE && dataLength >= 11) {
+            long id = in.getLong(data);
+            int from = in.get(data + 8);
+            int to = in.get(data + 9);
+            int promotion = in.get(data + 10);
+            PieceType type = (promotion > 0 && promotion < TYPES.length) ? TYPES[promotion] : null;
+            service.move(id, from, to, type, c, request);
+        } else if (op == Protocol.STATE && dataLength >= 8) {
+            service.state(in.getLong(data)).whenComplete((state, error) -> {
+                if (error != null) {
+                    c.error(request, error.getMessage());
+                } else {
+                    c.state(request, state);
+                }
+            });
+        } else {
+            c.error(request, "Invalid request");
+        }
+    }
+
+    //Chamado pelas threads dos atores depois de escrever uma resposta
+    private void markPending(Connection c) {
+        if (c.queued.compareAndSet(false, true)) {
+            pending.add(c);
+            if (wakeupRequested.compareAndSet(false, true)) {
+                selector.wakeup();
+            }
+        }
+    }
+
+    private void flushPending() throws IOException {
+        Connection c;
+        while ((c = pending.poll()) != null) {
+            c.queued.set(false);
+            if (c.overflowed) {
+                disconnect(c.key);
+            } else if (c.key.isValid()) {
+                try {
+                    write(c);
+                } catch (IOException | RuntimeException e) {
+                    disconnect(c.key);
+                }
+            }
+        }
+    }
+
+    private void write(Connection c) throws IOException {
+        synchronized (c) {
+            c.out.flip();
+            c.channel.write(c.out);
+            boolean remaining = c.out.hasRemaining();
+            c.out.compact();
+            c.key.interestOps(remaining ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+
+    //Nunca lança: um erro ao fechar uma conexão não pode derrubar a thread do Selector
+    private void disconnect(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            //O canal fica sem chave e será recolhido
+        }
+    }
+
+    //Estado de uma conexão: buffers reaproveitados por toda a vida dela
+    private class Connection implements MoveSink {
+        SocketChannel channel;
+        SelectionKey key;
+        ByteBuffer in = ByteBuffer.allocateDirect(16 * 1024);
+        ByteBuffer out = ByteBuffer.allocate(16 * 1024);
+        AtomicBoolean queued = new AtomicBoolean();
+        volatile boolean overflowed;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        void created(int request, long id) {
+            synchronized (this) {
+                if (begin(Protocol.CREATED, request, 8)) {
+                    out.putLong(id);
+                }
+            }
+            markPending(this);
+        }
+
+        //Chamado na thread do ator: lê a partida direto, sem FEN nem objetos intermediários
+        @Override
+        public void moved(int request, ChessMatch match) {
+            byte flags = flags(match.getCheck(), match.getCheckMate(), match.getDraw());
+            short turn = (short) match.getTurn();
+            synchronized (this) {
+                if (begin(Protocol.MOVED, request, 3)) {
+                    out.put(flags).putShort(turn);
+                }
+            }
+            markPending(this);
+        }
+
+        void state(int request, MatchState state) {
+            byte[] fen = state.getFen().getBytes(StandardCharsets.US_ASCII);
+            byte flags = flags(state.getCheck(), state.getCheckMate(), state.getDraw());
+            synchronized (this) {
+                if (begin(Protocol.STATE_REPLY, request, 4 + fen.length)) {
+                    out.put(flags).putShort((short) state.getTurn()).put((byte) fen.length).put(fen);
+                }
+            }
+            markPending(this);
+        }
+
+        @Override
+        public void rejected(int request, MoveResult result) {
+            synchronized (this) {
+                if (begin(Protocol.REJECTED, request, 1)) {
+                    out.put((byte) result.ordinal());
+                }
+            }
+            markPending(this);
+        }
+
+        void error(int request, String message) {
+            text(Protocol.ERROR, request, message);
+        }
+
+        @Override
+        public void failed(int request, String message) {
+            error(request, message);
+        }
+
+        private void text(byte op, int request, String message) {
+            byte[] bytes = String.valueOf(message).getBytes(StandardCharsets.UTF_8);
+            int length = Math.min(bytes.length, 255);
+            synchronized (this) {
+                if (begin(op, request, 1 + length)) {
+                    out.put((byte) length).put(bytes, 0, length);
+                }
+            }
+            markPending(this);
+        }
+
+        //Escreve o cabeçalho; retorna false se a conexão passou do limite de saída
+        private boolean begin(byte op, int request, int dataLength) {
+            int frame = Protocol.HEADER_BYTES + dataLength;
+            if (out.remaining() < frame) {
+                if (out.capacity() * 2 > MAX_OUTPUT) {
+                    overflowed = true;
+                    return false;
+                }
+                ByteBuffer bigger = ByteBuffer.allocate(out.capacity() * 2);
+                out.flip();
+                bigger.put(out);
+                out = bigger;
+            }
+            out.putShort((short) (frame - 2)).put(op).putInt(request);
+            return true;
+        }
+
+        private byte flags(boolean check, boolean checkMate, boolean draw) {
+            return (byte) ((check ? Protocol.CHECK : 0) | (checkMate ? Protocol.CHECKMATE : 0) | (draw ? Protocol.DRAW : 0));
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        MatchService service = new MatchService();
+        MoveServer server = new MoveServer(service, port);
+        server.start();
+        System.out.println("Listening on " + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort());
+    }
+}
@@ -0,0 +1,17 @@
+package server;
+
+import chess.ChessMatch;
+import chess.MoveResult;
+
+/*
+    Destino das respostas de lances do front end de rede. Os métodos são
+    chamados na thread do ator da partida, então podem ler a ChessMatch
+    diretamente, sem tirar um MatchState.
+*/
+interface MoveSink {
+    void moved(int request, ChessMatch match);
+
+    void rejected(int request, MoveResult result);
+
+    void failed(int request, String message);
+}
@@ -0,0 +1,44 @@
+package server;
+
+/*
+    Protocolo binário do MoveServer (big-endian). Todo quadro é
+
+        tamanho (2 bytes, sem contar ele mesmo) | operação (1) | id do pedido (4) | dados
+
+    e toda resposta repete o id do pedido, porque respostas de partidas
+    diferentes podem chegar fora de ordem. Casas seguem o ChessBoard (a8 = 0,
+    h1 = 63); promoção é o ordinal de PieceType (0 = sem promoção, vira dama).
+
+    Pedidos:
+        CREATE   sem dados
+        MOVE     partida (8) | origem (1) | destino (1) | promoção (1)
+        STATE    partida (8)
+    Respostas:
+        CREATED  partida (8)
+        MOVED    flags (1) | turno (2)
+        REJECTED motivo (1) = chess.MoveResult.ordinal()
+        STATE    flags (1) | turno (2) | tamanho (1) | FEN em ASCII
+        ERROR    tamanho (1) | mensagem UTF-8 (pedido inválido ou partida inexistente)
+*/
+public final class Protocol {
+    public static final int HEADER_BYTES = 2 + 1 + 4;
+    public static final int MAX_FRAME = 512;
+
+    public static final byte CREATE = 0x01;
+    public static final byte MOVE = 0x02;
+    public static final byte STATE = 0x03;
+
+    public static final byte CREATED = (byte) 0x81;
+    public static final byte MOVED = (byte) 0x82;
+    public static final byte REJECTED = (byte) 0x83;
+    public static final byte STATE_REPLY = (byte) 0x84;
+    public static final byte ERROR = (byte) 0xFF;
+
+    //Bits de flags
+    public static final int CHECK = 1;
+    public static final int CHECKMATE = 2;
+    public static final int DRAW = 4;
+
+    private Protocol() {
+    }
+}